@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to complete a burst of concurrent runs with and without virtual threads. The real balances adjustment
+ * service is run against a {@link NetworkStoreStandIn} holding synthetic networks, fetches and flushes waiting
+ * for networkStoreLatencyMillis, each run being on its own network so that they are not serialized by the network
+ * locks. The number of platform workers is the same in both modes: with virtual threads, only the computations
+ * are bounded by it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BalancesAdjustmentConcurrencyBenchmark {
+
+    private static final long SEED = 42;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"64"})
+    public int concurrentRuns;
+
+    @Param({"4"})
+    public int poolSize;
+
+    @Param({"50"})
+    public long networkStoreLatencyMillis;
+
+    @Param({"1000"})
+    public int generatorCount;
+
+    @Param({"4"})
+    public int countryCount;
+
+    private BalancesAdjustmentService balancesAdjustmentService;
+
+    private BalancesAdjustmentJobService jobService;
+
+    private final List<UUID> networkUuids = new ArrayList<>();
+
+    private Map<String, Double> targetNetPositions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Duration latency = Duration.ofMillis(networkStoreLatencyMillis);
+        NetworkStoreStandIn networkStore = new NetworkStoreStandIn(latency, latency);
+        for (int i = 0; i < concurrentRuns; i++) {
+            UUID networkUuid = new UUID(SEED, i);
+            networkStore.importNetwork(networkUuid, SyntheticNetworkFactory.createRegulated(generatorCount, countryCount, SEED + i));
+            networkUuids.add(networkUuid);
+        }
+        targetNetPositions = SyntheticNetworkFactory.createTargetNetPositions(countryCount, SEED);
+
+        // no network nor result cache and no memory budget: each run fetches, computes and flushes its network
+        BalancesAdjustmentObserver observer = new BalancesAdjustmentObserver(new SimpleMeterRegistry());
+        BalancesAdjustmentMemoryBudget memoryBudget = new BalancesAdjustmentMemoryBudget(observer, 0, DataSize.ofMegabytes(256), DataSize.ofKilobytes(2), Duration.ofMinutes(1));
+        balancesAdjustmentService = new BalancesAdjustmentService();
+        ReflectionTestUtils.setField(balancesAdjustmentService, "networkCache",
+            new NetworkCache(networkStore, observer, memoryBudget, 0, Duration.ofMinutes(10), NetworkLoadingMode.FULL));
+        ReflectionTestUtils.setField(balancesAdjustmentService, "observer", observer);
+        ReflectionTestUtils.setField(balancesAdjustmentService, "resultCache", new BalancesAdjustmentResultCache(0, Duration.ofMinutes(10)));
+        ReflectionTestUtils.setField(balancesAdjustmentService, "memoryBudget", memoryBudget);
+        ReflectionTestUtils.setField(balancesAdjustmentService, "networkStoreParallelism", poolSize);
+        ReflectionTestUtils.setField(balancesAdjustmentService, "virtualThreads", virtualThreads);
+        ReflectionTestUtils.setField(balancesAdjustmentService, "computationParallelism", poolSize);
+        ReflectionTestUtils.setField(balancesAdjustmentService, "networkLockStripes", 256);
+        balancesAdjustmentService.init();
+        jobService = new BalancesAdjustmentJobService(balancesAdjustmentService, observer,
+            poolSize, concurrentRuns, Duration.ofMinutes(1), 1, 1, virtualThreads, concurrentRuns);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jobService.shutdown();
+        balancesAdjustmentService.shutdown();
+    }
+
+    @Benchmark
+    public List<BalanceComputationResult> concurrentRuns() throws ExecutionException, InterruptedException {
+        List<BalancesAdjustmentJob> jobs = new ArrayList<>(concurrentRuns);
+        for (UUID networkUuid : networkUuids) {
+            jobs.add(jobService.submit(new BalancesAdjustmentRunContext(networkUuid, null, new HashMap<>(targetNetPositions))));
+        }
+        List<BalanceComputationResult> results = new ArrayList<>(concurrentRuns);
+        for (BalancesAdjustmentJob job : jobs) {
+            results.add(job.getResult().get());
+        }
+        return results;
+    }
+}
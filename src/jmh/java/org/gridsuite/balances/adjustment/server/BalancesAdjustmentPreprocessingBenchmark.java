@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationArea;
+import com.powsybl.iidm.network.Generator;
+import com.powsybl.iidm.network.Network;
+import org.gridsuite.balances.adjustment.server.importer.TargetNetPositionsImporter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the preprocessing done before the balance computation iterations, on synthetic
+ * networks. Allocation rates are reported by the gc profiler enabled in the benchmarks profile.
+ * The preprocessing passes modify the network: only their first invocation changes values, the following
+ * ones measure the network scan, which is their actual cost. separatePasses is the preprocessing as it was
+ * done before being fused in a single pass (minP fix on the areas injections, then compensation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BalancesAdjustmentPreprocessingBenchmark {
+
+    private static final long SEED = 42;
+
+    @Param({"10000", "50000", "100000", "200000"})
+    public int generatorCount;
+
+    @Param({"32"})
+    public int countryCount;
+
+    private final BalancesAdjustmentService balancesAdjustmentService = new BalancesAdjustmentService();
+
+    private Network network;
+
+    private Map<String, Double> targetNetPositions;
+
+    private List<BalanceComputationArea> computationAreas;
+
+    private CountryDistributionKeys distributionKeys;
+
+    private byte[] targetNetPositionsFile;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        network = SyntheticNetworkFactory.create(generatorCount, countryCount, SEED);
+        targetNetPositions = SyntheticNetworkFactory.createTargetNetPositions(countryCount, SEED);
+        computationAreas = balancesAdjustmentService.createBalanceComputationAreas(network, new HashMap<>(targetNetPositions), false);
+        distributionKeys = CountryDistributionKeys.of(network, ScalingStrategy.TARGET_P);
+        targetNetPositionsFile = SyntheticNetworkFactory.writeTargetNetPositions(targetNetPositions);
+    }
+
+    @Benchmark
+    public List<BalanceComputationArea> createBalanceComputationAreas() {
+        return balancesAdjustmentService.createBalanceComputationAreas(network, new HashMap<>(targetNetPositions), true);
+    }
+
+    @Benchmark
+    public Map<String, Double> dispatchNetPositionsInconsistencies() {
+        // areas built for each invocation, as for each run, so that initial net positions are not memoized
+        Map<String, Double> targets = new HashMap<>(targetNetPositions);
+        balancesAdjustmentService.dispatchNetPositionsInconsistencies(CountryNetworkAreas.of(network), targets);
+        return targets;
+    }
+
+    @Benchmark
+    public Map<String, Double> completeInputMaps() {
+        // no target at all, so that every country net position has to be computed
+        Map<String, Double> targets = new HashMap<>();
+        balancesAdjustmentService.completeInputMaps(CountryNetworkAreas.of(network), targets);
+        return targets;
+    }
+
+    @Benchmark
+    public Network separatePasses() {
+        computationAreas.forEach(area -> area.getScalable().filterInjections(network).stream()
+            .filter(injection -> injection instanceof Generator)
+            .map(injection -> (Generator) injection)
+            .forEach(generator -> {
+                if (generator.getTargetP() < generator.getMinP()) {
+                    generator.setMinP(generator.getTargetP());
+                }
+            }));
+        network.getGenerators().forEach(generator -> {
+            double p = generator.getTerminal().getP();
+            if (!Double.isNaN(p) && generator.getTargetP() != -p) {
+                generator.setTargetP(-p);
+            }
+        });
+        return network;
+    }
+
+    @Benchmark
+    public Network fusedPass() {
+        balancesAdjustmentService.preprocess(network, distributionKeys, computationAreas, new NetworkVariantDelta());
+        return network;
+    }
+
+    @Benchmark
+    public Map<String, Double> importTargetNetPositions() throws IOException {
+        return TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(new ByteArrayInputStream(targetNetPositionsFile));
+    }
+}
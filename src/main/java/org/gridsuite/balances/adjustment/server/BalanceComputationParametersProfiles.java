@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationParameters;
+import com.powsybl.balances_adjustment.balance_computation.json_parameters.JsonBalanceComputationParameters;
+import com.powsybl.commons.PowsyblException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Balance computation parameters parsed once: named profiles and the parameters files sent with the runs.
+ * The returned parameters are shared by the runs, a run modifying them must ask for a copy.
+ */
+@Service
+public class BalanceComputationParametersProfiles {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BalanceComputationParametersProfiles.class);
+
+    private record ParsedParameters(byte[] content, BalanceComputationParameters parameters) {
+    }
+
+    private final Map<String, ParsedParameters> profiles = new ConcurrentHashMap<>();
+
+    private final Map<String, ParsedParameters> parsedFiles;
+
+    public BalanceComputationParametersProfiles(Environment environment, ResourceLoader resourceLoader,
+                                                @Value("${balances-adjustment.parameters-profiles.cache-size:64}") int cacheSize) {
+        this.parsedFiles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ParsedParameters> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        Binder.get(environment).bind("balances-adjustment.parameters-profiles.locations", Bindable.mapOf(String.class, String.class))
+            .orElse(Map.of())
+            .forEach((profileId, location) -> {
+                try (InputStream input = resourceLoader.getResource(location).getInputStream()) {
+                    register(profileId, input.readAllBytes());
+                    LOGGER.info("Balance computation parameters profile {} registered from {}", profileId, location);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot read balance computation parameters profile " + profileId + " from " + location, e);
+                }
+            });
+    }
+
+    /**
+     * Registers a profile, replacing the previous one with the same id if any.
+     */
+    public void register(String profileId, byte[] content) {
+        profiles.put(profileId, parse(content));
+    }
+
+    public boolean remove(String profileId) {
+        return profiles.remove(profileId) != null;
+    }
+
+    public Set<String> getProfileIds() {
+        return new TreeSet<>(profiles.keySet());
+    }
+
+    public BalanceComputationParameters get(String profileId) {
+        return getProfile(profileId).parameters();
+    }
+
+    /**
+     * Hash of the content of a profile, identifying its parameters.
+     */
+    public String getHash(String profileId) {
+        return hash(getProfile(profileId).content());
+    }
+
+    /**
+     * Parameters of a profile which are not shared, so that they can be modified.
+     */
+    public BalanceComputationParameters getCopy(String profileId) {
+        return read(getProfile(profileId).content());
+    }
+
+    /**
+     * Parameters of a file, parsed only if no file with the same content has been parsed recently.
+     */
+    public BalanceComputationParameters getFromFile(byte[] content) {
+        String hash = hash(content);
+        synchronized (parsedFiles) {
+            ParsedParameters parsedParameters = parsedFiles.get(hash);
+            if (parsedParameters != null) {
+                return parsedParameters.parameters();
+            }
+        }
+        ParsedParameters parsedParameters = parse(content);
+        synchronized (parsedFiles) {
+            parsedFiles.put(hash, parsedParameters);
+        }
+        return parsedParameters.parameters();
+    }
+
+    private ParsedParameters getProfile(String profileId) {
+        ParsedParameters profile = profiles.get(profileId);
+        if (profile == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Balance computation parameters profile '" + profileId + "' not found");
+        }
+        return profile;
+    }
+
+    private static ParsedParameters parse(byte[] content) {
+        return new ParsedParameters(content.clone(), read(content));
+    }
+
+    private static BalanceComputationParameters read(byte[] content) {
+        try {
+            return JsonBalanceComputationParameters.read(new ByteArrayInputStream(content));
+        } catch (UncheckedIOException | PowsyblException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid balance computation parameters: " + e.getMessage());
+        }
+    }
+
+    static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
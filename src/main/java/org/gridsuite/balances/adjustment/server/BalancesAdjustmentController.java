@@ -6,6 +6,8 @@
  */
 package org.gridsuite.balances.adjustment.server;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.powsybl.balances_adjustment.balance_computation.BalanceComputationParameters;
 import com.powsybl.balances_adjustment.balance_computation.BalanceComputationResult;
 import com.powsybl.balances_adjustment.balance_computation.json_parameters.JsonBalanceComputationParameters;
@@ -14,19 +16,39 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.gridsuite.balances.adjustment.server.importer.Glsk;
+import org.gridsuite.balances.adjustment.server.importer.GlskFormatException;
+import org.gridsuite.balances.adjustment.server.importer.GlskImporter;
+import org.gridsuite.balances.adjustment.server.importer.TargetNetPositionsFormatException;
+import org.gridsuite.balances.adjustment.server.importer.TargetNetPositionsImporter;
+import org.gridsuite.balances.adjustment.server.importer.TargetNetPositionsScenario;
+import org.gridsuite.balances.adjustment.server.importer.TimestampedTargetNetPositions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
 
 /**
  * @author Nicolas Noir <nicolas.noir at rte-france.com>
@@ -37,23 +59,333 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 @ComponentScan(basePackageClasses = BalancesAdjustmentService.class)
 public class BalancesAdjustmentController {
 
+    @Autowired
+    private BalancesAdjustmentJobService balancesAdjustmentJobService;
+
     @Autowired
     private BalancesAdjustmentService balancesAdjustmentService;
 
+    @Autowired
+    private BalancesAdjustmentScenariosService balancesAdjustmentScenariosService;
+
+    @Autowired
+    private BalancesAdjustmentTimeSeriesService balancesAdjustmentTimeSeriesService;
+
+    @Autowired
+    private BalancesAdjustmentQueueService balancesAdjustmentQueueService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BalancesAdjustmentObserver observer;
+
+    @Autowired
+    private BalanceComputationParametersProfiles parametersProfiles;
+
+    @Value("${balances-adjustment.scenarios.timeout:PT1H}")
+    private Duration scenariosTimeout;
+
+    @Value("${balances-adjustment.time-series.timeout:PT1H}")
+    private Duration timeSeriesTimeout;
+
+    @Value("${balances-adjustment.jobs.progress-timeout:PT1H}")
+    private Duration progressTimeout;
+
     @PutMapping(value = "/networks/{networkUuid}/run", produces = APPLICATION_JSON_VALUE, consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "run a balances adjustment on a network")
-    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The balances adjustment has been performed")})
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The balances adjustment has been performed"),
+        @ApiResponse(responseCode = "429", description = "Too many balances adjustments are already pending")})
     public ResponseEntity<BalanceComputationResult> computeBalancesAdjustment(@Parameter(description = "Network UUID") @PathVariable("networkUuid") UUID networkUuid,
-                                                                              @RequestParam(value = "balanceComputationParamsFile", required = false) MultipartFile balanceComputationParams,
-                                                                              @RequestParam("targetNetPositionFile") MultipartFile targetNetPositionFile) throws ExecutionException,
+                                                                              @ModelAttribute BalancesAdjustmentRunRequest request,
+                                                                              @Parameter(description = "Other networks UUIDs, merged with the first one to be balanced together")
+                                                                              @RequestParam(name = "networkUuid", required = false) List<UUID> otherNetworkUuids) throws ExecutionException,
                                                                                       InterruptedException, IOException {
-        BalanceComputationParameters parameters = balanceComputationParams != null
+        BalanceComputationResult result = balancesAdjustmentJobService.computeBalancesAdjustment(createRunContext(networkUuid, otherNetworkUuids, request));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(result);
+    }
+
+    @PutMapping(value = "/networks/{networkUuid}/run", params = "queued=true", produces = APPLICATION_JSON_VALUE, consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "run a balances adjustment on a network, on any instance of the server through the shared job queue")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The balances adjustment has been performed"),
+        @ApiResponse(responseCode = "400", description = "The queued balances adjustments are disabled, or a GLSK file is given"),
+        @ApiResponse(responseCode = "429", description = "Too many balances adjustments are already queued"),
+        @ApiResponse(responseCode = "504", description = "The balances adjustment has not been computed in time")})
+    public CompletableFuture<ResponseEntity<JsonNode>> computeBalancesAdjustmentQueued(@Parameter(description = "Network UUID") @PathVariable("networkUuid") UUID networkUuid,
+                                                                                       @ModelAttribute BalancesAdjustmentRunRequest request,
+                                                                                       @Parameter(description = "Other networks UUIDs, merged with the first one to be balanced together")
+                                                                                       @RequestParam(name = "networkUuid", required = false) List<UUID> otherNetworkUuids) throws IOException {
+        // the request thread is released right away, the response being written when an instance has computed the run
+        return balancesAdjustmentQueueService.submit(createRunContext(networkUuid, otherNetworkUuids, request))
+                .thenApply(result -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(result));
+    }
+
+    @PutMapping(value = "/networks/{networkUuid}/run", params = "async=true", produces = APPLICATION_JSON_VALUE, consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "submit a balances adjustment on a network, and return the UUID of the job running it")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The balances adjustment job has been submitted"),
+        @ApiResponse(responseCode = "429", description = "Too many balances adjustments are already pending")})
+    public ResponseEntity<UUID> submitBalancesAdjustment(@Parameter(description = "Network UUID") @PathVariable("networkUuid") UUID networkUuid,
+                                                         @ModelAttribute BalancesAdjustmentRunRequest request,
+                                                         @Parameter(description = "Other networks UUIDs, merged with the first one to be balanced together")
+                                                         @RequestParam(name = "networkUuid", required = false) List<UUID> otherNetworkUuids) throws IOException {
+        BalancesAdjustmentJob job = balancesAdjustmentJobService.submit(createRunContext(networkUuid, otherNetworkUuids, request));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(job.getUuid());
+    }
+
+    @PutMapping(value = "/networks/{networkUuid}/run-scenarios", produces = APPLICATION_NDJSON_VALUE, consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "run balances adjustments of several target net positions scenarios on a network, results are streamed as they are computed")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The result of each scenario, one JSON object per line"),
+        @ApiResponse(responseCode = "400", description = "The scenarios file is malformed or more than one scenario has to be flushed"),
+        @ApiResponse(responseCode = "429", description = "Too many balances adjustments are already pending")})
+    public ResponseEntity<ResponseBodyEmitter> computeBalancesAdjustmentScenarios(@Parameter(description = "Network UUID") @PathVariable("networkUuid") UUID networkUuid,
+                                                                                  @RequestParam(value = "balanceComputationParamsFile", required = false) MultipartFile balanceComputationParams,
+                                                                                  @Parameter(description = "Id of a registered balance computation parameters profile, instead of a parameters file")
+                                                                                  @RequestParam(value = "parametersProfile", required = false) String parametersProfile,
+                                                                                  @RequestParam("scenariosFile") MultipartFile scenariosFile,
+                                                                                  @Parameter(description = "How the network is loaded if it is not cached, the configured mode by default")
+                                                                                  @RequestParam(value = "loadingMode", required = false) NetworkLoadingMode loadingMode) throws IOException {
+        BalanceComputationParameters parameters = getParameters(balanceComputationParams, parametersProfile);
+        List<TargetNetPositionsScenario> scenarios;
+        try (InputStream scenariosStream = scenariosFile.getInputStream()) {
+            scenarios = observer.observe(BalancesAdjustmentObserver.Phase.TARGETS_PARSING,
+                () -> TargetNetPositionsImporter.getTargetNetPositionsScenariosFromFile(scenariosStream));
+        } catch (TargetNetPositionsFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        BalancesAdjustmentScenariosService.checkScenarios(scenarios);
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(scenariosTimeout.toMillis());
+        balancesAdjustmentJobService.execute(() -> {
+            try {
+                balancesAdjustmentScenariosService.computeBalancesAdjustmentScenarios(networkUuid, parameters, loadingMode, scenarios, scenarioResult -> {
+                    try {
+                        emitter.send(objectMapper.writeValueAsString(scenarioResult) + "\n", MediaType.APPLICATION_NDJSON);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                emitter.complete();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.completeWithError(e);
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+    }
+
+    @PutMapping(value = "/networks/{networkUuid}/run-time-series", produces = APPLICATION_NDJSON_VALUE, consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "run balances adjustments of consecutive timestamps, each one starting from the previous one, results are streamed as they are computed")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The result of each timestamp, one JSON object per line"),
+        @ApiResponse(responseCode = "400", description = "The time series file is malformed"),
+        @ApiResponse(responseCode = "429", description = "Too many balances adjustments are already pending")})
+    public ResponseEntity<ResponseBodyEmitter> computeBalancesAdjustmentTimeSeries(@Parameter(description = "Network UUID of the steps not giving their own one") @PathVariable("networkUuid") UUID networkUuid,
+                                                                                   @RequestParam(value = "balanceComputationParamsFile", required = false) MultipartFile balanceComputationParams,
+                                                                                   @Parameter(description = "Id of a registered balance computation parameters profile, instead of a parameters file")
+                                                                                   @RequestParam(value = "parametersProfile", required = false) String parametersProfile,
+                                                                                   @RequestParam("timeSeriesFile") MultipartFile timeSeriesFile,
+                                                                                   @Parameter(description = "How the networks are loaded if they are not cached, the configured mode by default")
+                                                                                   @RequestParam(value = "loadingMode", required = false) NetworkLoadingMode loadingMode) throws IOException {
+        checkParametersSource(balanceComputationParams, parametersProfile);
+        // owned by the series, which modifies them
+        BalanceComputationParameters parameters;
+        if (parametersProfile != null) {
+            parameters = parametersProfiles.getCopy(parametersProfile);
+        } else {
+            parameters = balanceComputationParams != null
                 ? JsonBalanceComputationParameters.read(balanceComputationParams.getInputStream())
                 : null;
+        }
+        List<TimestampedTargetNetPositions> steps;
+        try (InputStream timeSeriesStream = timeSeriesFile.getInputStream()) {
+            steps = observer.observe(BalancesAdjustmentObserver.Phase.TARGETS_PARSING,
+                () -> TargetNetPositionsImporter.readTargetNetPositionsTimeSeries(timeSeriesStream));
+        } catch (TargetNetPositionsFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
 
-        InputStream targetNetPositionsStream = targetNetPositionFile != null ? targetNetPositionFile.getInputStream() : null;
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeSeriesTimeout.toMillis());
+        balancesAdjustmentJobService.execute(() -> {
+            try {
+                balancesAdjustmentTimeSeriesService.computeBalancesAdjustmentTimeSeries(networkUuid, parameters, loadingMode, steps, stepResult -> {
+                    try {
+                        emitter.send(objectMapper.writeValueAsString(stepResult) + "\n", MediaType.APPLICATION_NDJSON);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                emitter.complete();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.completeWithError(e);
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+    }
 
-        BalanceComputationResult result = balancesAdjustmentService.computeBalancesAdjustment(networkUuid, parameters, targetNetPositionsStream);
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(result);
+    @DeleteMapping(value = "/networks/{networkUuid}/cache")
+    @Operation(summary = "forget the network kept in memory, to be called when the network has been modified by another service")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The network will be loaded again by the next run")})
+    public ResponseEntity<Void> invalidateNetwork(@Parameter(description = "Network UUID") @PathVariable("networkUuid") UUID networkUuid) {
+        balancesAdjustmentService.invalidateNetwork(networkUuid);
+        return ResponseEntity.ok().build();
+    }
+
+    @PutMapping(value = "/parameters-profiles/{profileId}", consumes = APPLICATION_JSON_VALUE)
+    @Operation(summary = "register a balance computation parameters profile, replacing the previous one with the same id")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The parameters profile has been registered"),
+        @ApiResponse(responseCode = "400", description = "The parameters are invalid")})
+    public ResponseEntity<Void> registerParametersProfile(@Parameter(description = "Profile id") @PathVariable("profileId") String profileId,
+                                                          @RequestBody byte[] parameters) {
+        parametersProfiles.register(profileId, parameters);
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping(value = "/parameters-profiles", produces = APPLICATION_JSON_VALUE)
+    @Operation(summary = "get the ids of the registered balance computation parameters profiles")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The parameters profiles ids")})
+    public ResponseEntity<Set<String>> getParametersProfiles() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(parametersProfiles.getProfileIds());
+    }
+
+    @DeleteMapping(value = "/parameters-profiles/{profileId}")
+    @Operation(summary = "remove a balance computation parameters profile")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The parameters profile has been removed"),
+        @ApiResponse(responseCode = "404", description = "The parameters profile has not been found")})
+    public ResponseEntity<Void> removeParametersProfile(@Parameter(description = "Profile id") @PathVariable("profileId") String profileId) {
+        if (!parametersProfiles.remove(profileId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Balance computation parameters profile '" + profileId + "' not found");
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping(value = "/jobs/{jobUuid}", produces = APPLICATION_JSON_VALUE)
+    @Operation(summary = "get the status of a balances adjustment job")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The balances adjustment job status"),
+        @ApiResponse(responseCode = "404", description = "The balances adjustment job has not been found")})
+    public ResponseEntity<BalancesAdjustmentJobInfos> getJob(@Parameter(description = "Job UUID") @PathVariable("jobUuid") UUID jobUuid) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(balancesAdjustmentJobService.getJob(jobUuid).getInfos());
+    }
+
+    @GetMapping(value = "/jobs/{jobUuid}/result", produces = APPLICATION_JSON_VALUE)
+    @Operation(summary = "get the result of a balances adjustment job")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The balances adjustment result"),
+        @ApiResponse(responseCode = "204", description = "The balances adjustment job is not finished yet"),
+        @ApiResponse(responseCode = "404", description = "The balances adjustment job has not been found"),
+        @ApiResponse(responseCode = "409", description = "The balances adjustment job has been cancelled"),
+        @ApiResponse(responseCode = "500", description = "The balances adjustment job has failed")})
+    public ResponseEntity<BalanceComputationResult> getJobResult(@Parameter(description = "Job UUID") @PathVariable("jobUuid") UUID jobUuid) {
+        BalancesAdjustmentJob job = balancesAdjustmentJobService.getJob(jobUuid);
+        BalancesAdjustmentJobInfos infos = job.getInfos();
+        return switch (infos.status()) {
+            case PENDING, RUNNING -> ResponseEntity.noContent().build();
+            case CANCELLED -> throw new ResponseStatusException(HttpStatus.CONFLICT, "Balances adjustment job '" + jobUuid + "' has been cancelled");
+            case FAILED -> throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, infos.errorMessage());
+            case COMPLETED -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                .body(job.getResult().join());
+        };
+    }
+
+    @GetMapping(value = "/jobs/{jobUuid}/progress", produces = TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "follow a balances adjustment job: an 'iteration' event for each iteration of the balance computation, the ones already computed first, then a 'status' event when the job is finished")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The stream of the balances adjustment job progress"),
+        @ApiResponse(responseCode = "404", description = "The balances adjustment job has not been found")})
+    public SseEmitter getJobProgress(@Parameter(description = "Job UUID") @PathVariable("jobUuid") UUID jobUuid) {
+        BalancesAdjustmentJob job = balancesAdjustmentJobService.getJob(jobUuid);
+        SseEmitter emitter = new SseEmitter(progressTimeout.toMillis());
+        BalancesAdjustmentJob.ProgressListener listener = new BalancesAdjustmentJob.ProgressListener() {
+            @Override
+            public void onIteration(BalancesAdjustmentIteration iteration) {
+                try {
+                    emitter.send(SseEmitter.event().name("iteration").data(iteration, MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    // the client is gone, the job goes on
+                    emitter.completeWithError(e);
+                }
+            }
+
+            @Override
+            public void onFinished(BalancesAdjustmentJobInfos infos) {
+                try {
+                    emitter.send(SseEmitter.event().name("status").data(infos, MediaType.APPLICATION_JSON));
+                    emitter.complete();
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            }
+        };
+        Runnable removeListener = () -> job.removeProgressListener(listener);
+        emitter.onCompletion(removeListener);
+        emitter.onTimeout(removeListener);
+        emitter.onError(e -> removeListener.run());
+        job.addProgressListener(listener);
+        return emitter;
+    }
+
+    @DeleteMapping(value = "/jobs/{jobUuid}", produces = APPLICATION_JSON_VALUE)
+    @Operation(summary = "cancel a balances adjustment job")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The balances adjustment job has been cancelled"),
+        @ApiResponse(responseCode = "404", description = "The balances adjustment job has not been found")})
+    public ResponseEntity<BalancesAdjustmentJobInfos> cancelJob(@Parameter(description = "Job UUID") @PathVariable("jobUuid") UUID jobUuid) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(balancesAdjustmentJobService.cancel(jobUuid).getInfos());
+    }
+
+    private BalancesAdjustmentRunContext createRunContext(UUID networkUuid, List<UUID> otherNetworkUuids, BalancesAdjustmentRunRequest request) throws IOException {
+        MultipartFile balanceComputationParams = request.balanceComputationParamsFile();
+        String parametersProfile = request.parametersProfile();
+        BalanceComputationParameters parameters = getParameters(balanceComputationParams, parametersProfile);
+        if (request.targetNetPositionFile() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing target net positions file");
+        }
+
+        Map<String, Double> targetNetPositions;
+        try (InputStream targetNetPositionsStream = request.targetNetPositionFile().getInputStream()) {
+            targetNetPositions = observer.observe(BalancesAdjustmentObserver.Phase.TARGETS_PARSING,
+                () -> TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(targetNetPositionsStream));
+        } catch (TargetNetPositionsFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        BalancesAdjustmentRunContext context = new BalancesAdjustmentRunContext(networkUuid, parameters, targetNetPositions)
+                .setOtherNetworkUuids(otherNetworkUuids != null
+                    ? otherNetworkUuids.stream().filter(otherNetworkUuid -> !otherNetworkUuid.equals(networkUuid)).toList()
+                    : null)
+                .setPreview(request.preview())
+                .setScalingStrategy(request.scalingStrategy() != null ? request.scalingStrategy() : ScalingStrategy.TARGET_P)
+                .setLoadingMode(request.loadingMode())
+                .setGlsk(readGlsk(request.glskFile()));
+        if (parametersProfile != null) {
+            context.setParametersHash(parametersProfiles.getHash(parametersProfile));
+        } else if (balanceComputationParams != null) {
+            context.setParametersHash(BalanceComputationParametersProfiles.hash(balanceComputationParams.getBytes()));
+        }
+        return context;
+    }
+
+    private BalanceComputationParameters getParameters(MultipartFile balanceComputationParams, String parametersProfile) throws IOException {
+        checkParametersSource(balanceComputationParams, parametersProfile);
+        if (parametersProfile != null) {
+            return parametersProfiles.get(parametersProfile);
+        }
+        return balanceComputationParams != null ? parametersProfiles.getFromFile(balanceComputationParams.getBytes()) : null;
+    }
+
+    private static void checkParametersSource(MultipartFile balanceComputationParams, String parametersProfile) {
+        if (balanceComputationParams != null && parametersProfile != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Either a parameters file or a parameters profile can be given, not both");
+        }
+    }
+
+    private static Glsk readGlsk(MultipartFile glskFile) throws IOException {
+        if (glskFile == null) {
+            return null;
+        }
+        try (InputStream glskStream = glskFile.getInputStream()) {
+            return GlskImporter.readGlsk(glskStream);
+        } catch (GlskFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 }
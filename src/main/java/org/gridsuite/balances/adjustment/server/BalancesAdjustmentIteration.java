@@ -0,0 +1,17 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import java.util.Map;
+
+/**
+ * Progress of a balance computation after one of its iterations, by area name: the net positions reached by
+ * the load flow and their mismatch with the targets. The load flow time includes the scaling which precedes it.
+ */
+public record BalancesAdjustmentIteration(int iteration, Map<String, Double> netPositions, Map<String, Double> mismatches,
+                                          long loadFlowTimeMs) {
+}
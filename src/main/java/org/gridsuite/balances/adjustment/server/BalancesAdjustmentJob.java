@@ -0,0 +1,267 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A balances adjustment run submitted to {@link BalancesAdjustmentJobService}, and its state.
+ * The progress listeners are notified on the progress executor, each one with its own bounded buffer.
+ */
+public class BalancesAdjustmentJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BalancesAdjustmentJob.class);
+
+    // at most this many iterations are kept to be replayed to new listeners, the most recent ones
+    static final int MAX_ITERATIONS = 100;
+
+    /**
+     * Follows the progress of a job, notified in order.
+     */
+    public interface ProgressListener {
+
+        void onIteration(BalancesAdjustmentIteration iteration);
+
+        void onFinished(BalancesAdjustmentJobInfos infos);
+    }
+
+    private final UUID uuid = UUID.randomUUID();
+
+    private final BalancesAdjustmentRunContext context;
+
+    private final Executor progressExecutor;
+
+    private final CompletableFuture<BalanceComputationResult> result = new CompletableFuture<>();
+
+    private BalancesAdjustmentJobStatus status = BalancesAdjustmentJobStatus.PENDING;
+
+    private String errorMessage;
+
+    private Future<?> execution;
+
+    private Instant completionDate;
+
+    // once set, the job can no longer be cancelled: its network is being written
+    private boolean flushStarted;
+
+    private final Deque<BalancesAdjustmentIteration> iterations = new ArrayDeque<>();
+
+    private final List<ListenerDispatcher> progressListeners = new ArrayList<>();
+
+    public BalancesAdjustmentJob(BalancesAdjustmentRunContext context, Executor progressExecutor) {
+        this.context = Objects.requireNonNull(context);
+        this.progressExecutor = Objects.requireNonNull(progressExecutor);
+        context.setProgressListener(this::onIteration);
+        context.setFlushGuard(this::startFlush);
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public BalancesAdjustmentRunContext getContext() {
+        return context;
+    }
+
+    public CompletableFuture<BalanceComputationResult> getResult() {
+        return result;
+    }
+
+    public synchronized BalancesAdjustmentJobStatus getStatus() {
+        return status;
+    }
+
+    public synchronized BalancesAdjustmentJobInfos getInfos() {
+        return new BalancesAdjustmentJobInfos(uuid, context.getNetworkUuid(), status, errorMessage);
+    }
+
+    /**
+     * Notifies the given listener of the iterations already computed, then of the next ones, then of the final
+     * status of the job.
+     */
+    public void addProgressListener(ProgressListener listener) {
+        ListenerDispatcher dispatcher = new ListenerDispatcher(listener);
+        synchronized (this) {
+            iterations.forEach(dispatcher::add);
+            if (status.isFinished()) {
+                dispatcher.add(getInfos());
+            } else {
+                progressListeners.add(dispatcher);
+            }
+        }
+        dispatcher.schedule();
+    }
+
+    public synchronized void removeProgressListener(ProgressListener listener) {
+        progressListeners.removeIf(dispatcher -> dispatcher.listener == listener);
+    }
+
+    void onIteration(BalancesAdjustmentIteration iteration) {
+        List<ListenerDispatcher> dispatchers;
+        synchronized (this) {
+            if (iterations.size() == MAX_ITERATIONS) {
+                iterations.removeFirst();
+            }
+            iterations.addLast(iteration);
+            progressListeners.forEach(dispatcher -> dispatcher.add(iteration));
+            dispatchers = List.copyOf(progressListeners);
+        }
+        dispatchers.forEach(ListenerDispatcher::schedule);
+    }
+
+    synchronized void setExecution(Future<?> execution) {
+        this.execution = execution;
+    }
+
+    synchronized boolean start() {
+        if (status != BalancesAdjustmentJobStatus.PENDING) {
+            return false;
+        }
+        status = BalancesAdjustmentJobStatus.RUNNING;
+        return true;
+    }
+
+    synchronized boolean startFlush() {
+        if (status != BalancesAdjustmentJobStatus.RUNNING) {
+            return false;
+        }
+        flushStarted = true;
+        return true;
+    }
+
+    void complete(BalanceComputationResult balanceComputationResult) {
+        if (finish(BalancesAdjustmentJobStatus.COMPLETED, null)) {
+            result.complete(balanceComputationResult);
+        }
+    }
+
+    void fail(Throwable throwable) {
+        if (finish(BalancesAdjustmentJobStatus.FAILED, throwable.getMessage())) {
+            result.completeExceptionally(throwable);
+        }
+    }
+
+    boolean cancel() {
+        if (!finish(BalancesAdjustmentJobStatus.CANCELLED, null)) {
+            return false;
+        }
+        Future<?> cancelledExecution;
+        synchronized (this) {
+            cancelledExecution = execution;
+        }
+        if (cancelledExecution != null) {
+            cancelledExecution.cancel(true);
+        }
+        result.completeExceptionally(new CancellationException("Balances adjustment job '" + uuid + "' cancelled"));
+        return true;
+    }
+
+    synchronized boolean isExpired(Instant now, Duration retention) {
+        return completionDate != null && completionDate.plus(retention).isBefore(now);
+    }
+
+    /**
+     * Sets the final status of the job, then notifies its listeners outside the lock.
+     */
+    private boolean finish(BalancesAdjustmentJobStatus finalStatus, String message) {
+        List<ListenerDispatcher> dispatchers;
+        synchronized (this) {
+            if (status.isFinished() || flushStarted && finalStatus == BalancesAdjustmentJobStatus.CANCELLED) {
+                return false;
+            }
+            status = finalStatus;
+            errorMessage = message;
+            completionDate = Instant.now();
+            BalancesAdjustmentJobInfos infos = getInfos();
+            progressListeners.forEach(dispatcher -> dispatcher.add(infos));
+            dispatchers = List.copyOf(progressListeners);
+            progressListeners.clear();
+        }
+        dispatchers.forEach(ListenerDispatcher::schedule);
+        return true;
+    }
+
+    /**
+     * Delivers the events of a listener one after the other on the progress executor.
+     */
+    private final class ListenerDispatcher implements Runnable {
+
+        private final ProgressListener listener;
+
+        // pending iterations and final status, bounded by MAX_ITERATIONS
+        private final Deque<Object> events = new ArrayDeque<>();
+
+        private boolean scheduled;
+
+        private ListenerDispatcher(ProgressListener listener) {
+            this.listener = listener;
+        }
+
+        private synchronized void add(Object event) {
+            if (events.size() >= MAX_ITERATIONS && events.peekFirst() instanceof BalancesAdjustmentIteration) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+
+        private void schedule() {
+            synchronized (this) {
+                if (scheduled || events.isEmpty()) {
+                    return;
+                }
+                scheduled = true;
+            }
+            try {
+                progressExecutor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+                synchronized (this) {
+                    scheduled = false;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Object event;
+                synchronized (this) {
+                    event = events.pollFirst();
+                    if (event == null) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                try {
+                    if (event instanceof BalancesAdjustmentIteration iteration) {
+                        listener.onIteration(iteration);
+                    } else {
+                        listener.onFinished((BalancesAdjustmentJobInfos) event);
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Progress listener of balances adjustment job {} failed", uuid, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import java.util.UUID;
+
+public record BalancesAdjustmentJobInfos(UUID jobUuid, UUID networkUuid, BalancesAdjustmentJobStatus status, String errorMessage) {
+}
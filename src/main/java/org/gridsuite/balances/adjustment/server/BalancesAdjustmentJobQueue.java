@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import java.util.function.Consumer;
+
+/**
+ * Broker shared by the instances of the server for the queued runs (see {@link BalancesAdjustmentQueueService}):
+ * each run is delivered to a single worker, results are broadcast to all the instances.
+ */
+public interface BalancesAdjustmentJobQueue {
+
+    /**
+     * @throws org.springframework.web.server.ResponseStatusException (429) if the queue is full
+     */
+    void publishRun(String message);
+
+    /**
+     * Removes a published run not delivered to any worker yet, if the broker allows it. The runs which are not
+     * removed are dropped by the workers once past their deadline.
+     */
+    default void removeRun(String message) {
+        // delivered anyway, then dropped
+    }
+
+    /**
+     * Delivers the runs to the given worker, on the threads of the broker: the next run is only delivered to a
+     * thread once the worker has returned. A run the worker rejects ({@link BalancesAdjustmentRunRejectedException})
+     * is given back to the queue.
+     */
+    void subscribeRuns(Consumer<String> worker);
+
+    void publishResult(String message);
+
+    void subscribeResults(Consumer<String> listener);
+}
@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationResult;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs balances adjustments on a bounded pool of workers. Both the asynchronous API (job
+ * UUID returned right away) and the synchronous one (waiting for the job) go through it,
+ * so the number of concurrent computations never depends on the number of servlet threads.
+ */
+@Service
+public class BalancesAdjustmentJobService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BalancesAdjustmentJobService.class);
+
+    static final String RUNNING_GAUGE_NAME = "balances-adjustment.jobs.running";
+    static final String PENDING_GAUGE_NAME = "balances-adjustment.jobs.pending";
+
+    private static final int PROGRESS_THREADS = 2;
+
+    // the finished jobs are purged at least this often, more often with a shorter retention
+    private static final Duration PURGE_PERIOD = Duration.ofMinutes(1);
+
+    private final BalancesAdjustmentService balancesAdjustmentService;
+
+    private final ExecutorService executor;
+
+    // with virtual threads, a thread per run: runPermits bounds the runs in progress, admissions the runs in
+    // progress or waiting for a permit. Both are null with platform threads, bounded by the pool and its queue
+    private final Semaphore runPermits;
+
+    private final Semaphore admissions;
+
+    // previews have their own small pool, so that they never delay the runs which are flushed
+    private final ThreadPoolExecutor previewExecutor;
+
+    private final Duration retention;
+
+    private final Map<UUID, BalancesAdjustmentJob> jobs = new ConcurrentHashMap<>();
+
+    // notifies the progress listeners of the jobs, outside of the computations
+    private final ExecutorService progressExecutor;
+
+    // purges the finished jobs even when no job is submitted
+    private final ScheduledExecutorService purgeExecutor;
+
+    public BalancesAdjustmentJobService(BalancesAdjustmentService balancesAdjustmentService,
+                                        BalancesAdjustmentObserver observer,
+                                        @Value("${balances-adjustment.jobs.pool-size:4}") int poolSize,
+                                        @Value("${balances-adjustment.jobs.queue-capacity:16}") int queueCapacity,
+                                        @Value("${balances-adjustment.jobs.retention:PT1H}") Duration retention,
+                                        @Value("${balances-adjustment.preview.pool-size:2}") int previewPoolSize,
+                                        @Value("${balances-adjustment.preview.queue-capacity:8}") int previewQueueCapacity,
+                                        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                        @Value("${balances-adjustment.virtual-threads.max-concurrent-runs:256}") int maxConcurrentRuns) {
+        this.balancesAdjustmentService = balancesAdjustmentService;
+        this.retention = retention;
+        if (virtualThreads) {
+            // runs mostly wait for the network store: many of them are executed by virtual threads, their CPU bound
+            // part being run on poolSize platform threads by the balances adjustment service
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("balances-adjustment-", 1).factory());
+            Semaphore virtualRunPermits = new Semaphore(maxConcurrentRuns);
+            this.runPermits = virtualRunPermits;
+            this.admissions = new Semaphore(maxConcurrentRuns + queueCapacity);
+            observer.registerGauge(RUNNING_GAUGE_NAME, virtualRunPermits, permits -> maxConcurrentRuns - permits.availablePermits());
+            // admitted runs not holding a run permit yet
+            observer.registerGauge(PENDING_GAUGE_NAME, admissions,
+                permits -> Math.max(0, queueCapacity - permits.availablePermits() + virtualRunPermits.availablePermits()));
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "balances-adjustment-" + threadCount.incrementAndGet()));
+            this.executor = threadPoolExecutor;
+            this.runPermits = null;
+            this.admissions = null;
+            observer.registerGauge(RUNNING_GAUGE_NAME, threadPoolExecutor, ThreadPoolExecutor::getActiveCount);
+            observer.registerGauge(PENDING_GAUGE_NAME, threadPoolExecutor, e -> e.getQueue().size());
+        }
+        AtomicInteger previewThreadCount = new AtomicInteger();
+        this.previewExecutor = new ThreadPoolExecutor(previewPoolSize, previewPoolSize, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(previewQueueCapacity),
+            runnable -> new Thread(runnable, "balances-adjustment-preview-" + previewThreadCount.incrementAndGet()));
+        AtomicInteger progressThreadCount = new AtomicInteger();
+        this.progressExecutor = Executors.newFixedThreadPool(PROGRESS_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "balances-adjustment-progress-" + progressThreadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.purgeExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balances-adjustment-jobs-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long purgePeriodMillis = Math.max(1, Math.min(retention.toMillis(), PURGE_PERIOD.toMillis()));
+        purgeExecutor.scheduleWithFixedDelay(this::purgeExpiredJobs, purgePeriodMillis, purgePeriodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public BalancesAdjustmentJob submit(BalancesAdjustmentRunContext context) {
+        BalancesAdjustmentJob job = new BalancesAdjustmentJob(context, progressExecutor);
+        jobs.put(job.getUuid(), job);
+        try {
+            job.setExecution(context.isPreview() ? previewExecutor.submit(() -> run(job)) : submitRun(() -> run(job)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getUuid());
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many balances adjustments pending, retry later");
+        }
+        return job;
+    }
+
+    /**
+     * Runs a task on the workers, rejecting it when they are all busy and their queue is full.
+     */
+    public void execute(Runnable task) {
+        try {
+            submitRun(task);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many balances adjustments pending, retry later");
+        }
+    }
+
+    private Future<?> submitRun(Runnable task) {
+        if (runPermits == null) {
+            return executor.submit(task);
+        }
+        if (!admissions.tryAcquire()) {
+            throw new RejectedExecutionException("Too many balances adjustments pending");
+        }
+        // a run cancelled while waiting for its permit returns as soon as it gets it
+        FutureTask<Void> future = new FutureTask<>(task, null);
+        try {
+            executor.execute(() -> runWithPermit(future));
+        } catch (RejectedExecutionException e) {
+            admissions.release();
+            throw e;
+        }
+        return future;
+    }
+
+    private void runWithPermit(Runnable task) {
+        try {
+            runPermits.acquire();
+            try {
+                task.run();
+            } finally {
+                runPermits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            admissions.release();
+        }
+    }
+
+    public BalanceComputationResult computeBalancesAdjustment(BalancesAdjustmentRunContext context) throws ExecutionException, InterruptedException {
+        BalancesAdjustmentJob job = submit(context);
+        try {
+            return job.getResult().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ResponseStatusException responseStatusException) {
+                throw responseStatusException;
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            job.cancel();
+            throw e;
+        } finally {
+            jobs.remove(job.getUuid());
+        }
+    }
+
+    public BalancesAdjustmentJob getJob(UUID jobUuid) {
+        BalancesAdjustmentJob job = jobs.get(jobUuid);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Balances adjustment job '" + jobUuid + "' not found");
+        }
+        return job;
+    }
+
+    public BalancesAdjustmentJob cancel(UUID jobUuid) {
+        BalancesAdjustmentJob job = getJob(jobUuid);
+        if (job.cancel()) {
+            LOGGER.info("Balances adjustment job {} cancelled", jobUuid);
+        }
+        return job;
+    }
+
+    private void run(BalancesAdjustmentJob job) {
+        if (!job.start()) {
+            return;
+        }
+        try {
+            job.complete(balancesAdjustmentService.computeBalancesAdjustment(job.getContext()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.cancel();
+        } catch (Exception e) {
+            LOGGER.error("Balances adjustment job {} failed", job.getUuid(), e);
+            job.fail(e);
+        }
+    }
+
+    void purgeExpiredJobs() {
+        Instant now = Instant.now();
+        jobs.values().removeIf(job -> job.isExpired(now, retention));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        previewExecutor.shutdownNow();
+        progressExecutor.shutdownNow();
+        purgeExecutor.shutdownNow();
+    }
+}
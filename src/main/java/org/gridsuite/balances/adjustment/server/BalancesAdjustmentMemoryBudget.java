@@ -0,0 +1,319 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.iidm.network.Network;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Admission control of the runs against a heap budget, each network loaded by the {@link NetworkCache} being
+ * counted once whether it is used by runs, cached or both. A run which waits too long is rejected (429).
+ */
+@Component
+public class BalancesAdjustmentMemoryBudget {
+
+    static final String BUDGET_GAUGE_NAME = "balances-adjustment.memory.budget";
+    static final String RESERVED_GAUGE_NAME = "balances-adjustment.memory.reserved";
+    static final String WAITING_GAUGE_NAME = "balances-adjustment.memory.waiting";
+
+    private static final int NETWORK_SIZES_MAX_SIZE = 1024;
+
+    /**
+     * Memory reserved by a run, released when closed.
+     */
+    public final class Reservation implements AutoCloseable {
+
+        // the copies made by the run
+        private final int kilobytes;
+
+        // the networks used by the run
+        private final Collection<UUID> networkUuids;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Reservation(int kilobytes, Collection<UUID> networkUuids) {
+            this.kilobytes = kilobytes;
+            this.networkUuids = networkUuids;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                releaseNetworks(networkUuids);
+                available.release(kilobytes);
+            }
+        }
+    }
+
+    /**
+     * Memory held by a loaded network, until it is neither used by a run nor cached.
+     */
+    private static final class NetworkFootprint {
+
+        private int kilobytes;
+
+        private int users;
+
+        private boolean cached;
+
+        private NetworkFootprint(int kilobytes) {
+            this.kilobytes = kilobytes;
+        }
+    }
+
+    // the semaphore permits are kilobytes, so that budgets up to 2 TB fit in an int
+    private final int budgetKilobytes;
+
+    private final Semaphore available;
+
+    private final long defaultNetworkBytes;
+
+    private final long bytesPerEquipment;
+
+    private final Duration waitTimeout;
+
+    private final AtomicInteger waitingRuns = new AtomicInteger();
+
+    // evicts the least recently used cached network, false if there is none
+    private volatile BooleanSupplier cacheEvictor = () -> false;
+
+    // estimated footprint of the networks loaded recently, by network UUID
+    private final Map<UUID, Long> networkSizes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Long> eldest) {
+            return size() > NETWORK_SIZES_MAX_SIZE;
+        }
+    };
+
+    private final Map<UUID, NetworkFootprint> footprints = new HashMap<>();
+
+    @Autowired
+    public BalancesAdjustmentMemoryBudget(BalancesAdjustmentObserver observer,
+                                          @Value("${balances-adjustment.memory-budget.heap-ratio:0.7}") double heapRatio,
+                                          @Value("${balances-adjustment.memory-budget.default-network-size:256MB}") DataSize defaultNetworkSize,
+                                          @Value("${balances-adjustment.memory-budget.bytes-per-equipment:2KB}") DataSize bytesPerEquipment,
+                                          @Value("${balances-adjustment.memory-budget.wait-timeout:PT1M}") Duration waitTimeout) {
+        this(observer, (long) (Runtime.getRuntime().maxMemory() * heapRatio), defaultNetworkSize, bytesPerEquipment, waitTimeout);
+    }
+
+    BalancesAdjustmentMemoryBudget(BalancesAdjustmentObserver observer, long budgetBytes, DataSize defaultNetworkSize,
+                                   DataSize bytesPerEquipment, Duration waitTimeout) {
+        this.budgetKilobytes = (int) Math.min(Integer.MAX_VALUE, Math.max(0, budgetBytes / 1024));
+        this.available = new Semaphore(budgetKilobytes, true);
+        this.defaultNetworkBytes = defaultNetworkSize.toBytes();
+        this.bytesPerEquipment = bytesPerEquipment.toBytes();
+        this.waitTimeout = waitTimeout;
+        observer.registerGauge(BUDGET_GAUGE_NAME, this, budget -> budget.budgetKilobytes * 1024.);
+        observer.registerGauge(RESERVED_GAUGE_NAME, this, BalancesAdjustmentMemoryBudget::getReservedBytes);
+        observer.registerGauge(WAITING_GAUGE_NAME, waitingRuns, AtomicInteger::get);
+    }
+
+    /**
+     * Reserves the footprint of a run using the given networks, those already counted not being counted again.
+     *
+     * @param copies number of in-memory copies of the networks made by the run
+     */
+    public Reservation reserve(Collection<UUID> networkUuids, int copies) throws InterruptedException {
+        return reserve(networkUuids, true, copies);
+    }
+
+    /**
+     * Reserves the footprint of private copies of the given networks, loaded or copied for the run only.
+     */
+    public Reservation reserveCopies(Collection<UUID> networkUuids, int copies) throws InterruptedException {
+        return reserve(networkUuids, false, copies);
+    }
+
+    private Reservation reserve(Collection<UUID> networkUuids, boolean useNetworks, int copies) throws InterruptedException {
+        if (budgetKilobytes == 0) {
+            return new Reservation(0, List.of());
+        }
+        List<UUID> usedNetworkUuids = useNetworks ? networkUuids.stream().distinct().toList() : List.of();
+        // the networks already counted are kept until the run ends, the other ones are counted by the run
+        Map<UUID, Integer> uncountedNetworks = new LinkedHashMap<>();
+        int remainingKilobytes = budgetKilobytes;
+        synchronized (footprints) {
+            for (UUID networkUuid : usedNetworkUuids) {
+                NetworkFootprint footprint = footprints.get(networkUuid);
+                if (footprint != null) {
+                    footprint.users++;
+                } else {
+                    int kilobytes = Math.min(remainingKilobytes, toKilobytes(getNetworkSize(networkUuid)));
+                    uncountedNetworks.put(networkUuid, kilobytes);
+                    remainingKilobytes -= kilobytes;
+                }
+            }
+        }
+        int copiesKilobytes = copies == 0 ? 0
+            : Math.min(remainingKilobytes, toKilobytes(copies * networkUuids.stream().mapToLong(this::getNetworkSize).sum()));
+        int kilobytes = copiesKilobytes + uncountedNetworks.values().stream().mapToInt(Integer::intValue).sum();
+        try {
+            acquire(kilobytes);
+        } catch (InterruptedException | RuntimeException e) {
+            releaseNetworks(usedNetworkUuids.stream().filter(networkUuid -> !uncountedNetworks.containsKey(networkUuid)).toList());
+            throw e;
+        }
+        synchronized (footprints) {
+            uncountedNetworks.forEach((networkUuid, networkKilobytes) -> {
+                NetworkFootprint footprint = footprints.get(networkUuid);
+                if (footprint != null) {
+                    // counted by the cache meanwhile
+                    footprint.users++;
+                    available.release(networkKilobytes);
+                } else {
+                    footprint = new NetworkFootprint(networkKilobytes);
+                    footprint.users = 1;
+                    footprints.put(networkUuid, footprint);
+                }
+            });
+        }
+        return new Reservation(copiesKilobytes, usedNetworkUuids);
+    }
+
+    private void acquire(int kilobytes) throws InterruptedException {
+        // the cached networks give way to the runs
+        boolean evicted = true;
+        while (evicted && available.availablePermits() < kilobytes) {
+            evicted = cacheEvictor.getAsBoolean();
+        }
+        waitingRuns.incrementAndGet();
+        try {
+            if (!available.tryAcquire(kilobytes, waitTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Not enough memory for the balances adjustment, retry later");
+            }
+        } finally {
+            waitingRuns.decrementAndGet();
+        }
+    }
+
+    private void releaseNetworks(Collection<UUID> networkUuids) {
+        synchronized (footprints) {
+            for (UUID networkUuid : networkUuids) {
+                NetworkFootprint footprint = footprints.get(networkUuid);
+                if (footprint != null && --footprint.users == 0 && !footprint.cached) {
+                    footprints.remove(networkUuid);
+                    available.release(footprint.kilobytes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts a network kept in the network cache, unless a run using it already counts it. Otherwise its
+     * footprint is reserved without waiting nor taking the memory the runs are waiting for.
+     *
+     * @return false if the network does not fit in the memory left
+     */
+    public boolean holdCached(UUID networkUuid) {
+        if (budgetKilobytes == 0) {
+            return true;
+        }
+        synchronized (footprints) {
+            NetworkFootprint footprint = footprints.get(networkUuid);
+            if (footprint == null) {
+                int kilobytes = toKilobytes(getNetworkSize(networkUuid));
+                // unlike the runs, a cached network never waits: it does not overtake the waiting runs either
+                if (available.hasQueuedThreads() || !available.tryAcquire(kilobytes)) {
+                    return false;
+                }
+                footprint = new NetworkFootprint(kilobytes);
+                footprints.put(networkUuid, footprint);
+            }
+            footprint.cached = true;
+            return true;
+        }
+    }
+
+    /**
+     * Releases a network no longer cached, once the runs using it, if any, have ended.
+     */
+    public void releaseCached(UUID networkUuid) {
+        synchronized (footprints) {
+            NetworkFootprint footprint = footprints.get(networkUuid);
+            if (footprint != null) {
+                footprint.cached = false;
+                if (footprint.users == 0) {
+                    footprints.remove(networkUuid);
+                    available.release(footprint.kilobytes);
+                }
+            }
+        }
+    }
+
+    void setCacheEvictor(BooleanSupplier cacheEvictor) {
+        this.cacheEvictor = cacheEvictor;
+    }
+
+    /**
+     * Records the footprint of a loaded or flushed network, estimating its next runs and correcting what it holds.
+     */
+    public void record(UUID networkUuid, Network network) {
+        long size = getEquipmentCount(network) * bytesPerEquipment;
+        synchronized (networkSizes) {
+            networkSizes.put(networkUuid, size);
+        }
+        if (budgetKilobytes == 0) {
+            return;
+        }
+        synchronized (footprints) {
+            NetworkFootprint footprint = footprints.get(networkUuid);
+            if (footprint == null) {
+                return;
+            }
+            int kilobytes = toKilobytes(size);
+            if (kilobytes < footprint.kilobytes) {
+                available.release(footprint.kilobytes - kilobytes);
+                footprint.kilobytes = kilobytes;
+            } else if (kilobytes > footprint.kilobytes && available.tryAcquire(kilobytes - footprint.kilobytes)) {
+                // only what is left: the network is already loaded
+                footprint.kilobytes = kilobytes;
+            }
+        }
+    }
+
+    public long getReservedBytes() {
+        return (budgetKilobytes - (long) available.availablePermits()) * 1024;
+    }
+
+    private int toKilobytes(long bytes) {
+        return (int) Math.min(budgetKilobytes, Math.max(1, (bytes + 1023) / 1024));
+    }
+
+    private long getNetworkSize(UUID networkUuid) {
+        synchronized (networkSizes) {
+            return networkSizes.getOrDefault(networkUuid, defaultNetworkBytes);
+        }
+    }
+
+    /**
+     * Only counts the collections every balances adjustment has read, so that counting does not load the other
+     * ones from the network store: the equipments not counted are covered by memory-budget.bytes-per-equipment.
+     */
+    static long getEquipmentCount(Network network) {
+        return (long) network.getSubstationCount() + network.getVoltageLevelCount() + network.getGeneratorCount()
+            + network.getLoadCount() + network.getLineCount() + network.getTwoWindingsTransformerCount()
+            + network.getThreeWindingsTransformerCount();
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer metrics of the balances adjustments: duration of each phase of a run, and
+ * status, iteration count and network size of each run.
+ * Without any registry in the context (e.g. actuator disabled) metrics are only kept in memory.
+ */
+@Component
+public class BalancesAdjustmentObserver {
+
+    static final String PHASE_TIMER_NAME = "balances-adjustment.phase";
+    static final String RUN_COUNTER_NAME = "balances-adjustment.runs";
+    static final String ITERATIONS_SUMMARY_NAME = "balances-adjustment.iterations";
+    static final String GENERATORS_SUMMARY_NAME = "balances-adjustment.network.generators";
+    static final String COUNTRIES_SUMMARY_NAME = "balances-adjustment.network.countries";
+    static final String FLUSH_DELTA_SUMMARY_NAME = "balances-adjustment.flush.delta";
+    static final String NETWORK_FETCH_TIMER_NAME = "balances-adjustment.network.fetch";
+
+    private static final String PHASE_TAG = "phase";
+    private static final String OUTCOME_TAG = "outcome";
+    private static final String STATUS_TAG = "status";
+    private static final String LOADING_MODE_TAG = "loading-mode";
+
+    /**
+     * Phases of a run, the value of the phase tag of their timer. PREPROCESSING ("preprocessing") times the single
+     * network pass which replaced the former "fix-min-p" and "compensation" phases: the dashboards using these tags
+     * must use it instead.
+     */
+    public enum Phase {
+        NETWORK_FETCH("network-fetch"),
+        TARGETS_PARSING("targets-parsing"),
+        AREAS_CREATION("areas-creation"),
+        PREPROCESSING("preprocessing"),
+        BALANCE_COMPUTATION("balance-computation"),
+        NETWORK_FLUSH("network-flush");
+
+        private final String tagValue;
+
+        Phase(String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+
+    @FunctionalInterface
+    public interface ObservedSupplier<T, E extends Exception> {
+        T get() throws E;
+    }
+
+    @FunctionalInterface
+    public interface ObservedRunnable<E extends Exception> {
+        void run() throws E;
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public BalancesAdjustmentObserver(ObjectProvider<MeterRegistry> meterRegistry) {
+        this(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    BalancesAdjustmentObserver(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    MeterRegistry getMeterRegistry() {
+        return meterRegistry;
+    }
+
+    public <T, E extends Exception> T observe(Phase phase, ObservedSupplier<T, E> supplier) throws E {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = supplier.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder(PHASE_TIMER_NAME)
+                    .tag(PHASE_TAG, phase.tagValue)
+                    .tag(OUTCOME_TAG, outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    public <E extends Exception> void observe(Phase phase, ObservedRunnable<E> runnable) throws E {
+        observe(phase, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    public void observeRun(BalanceComputationResult result, int generatorCount, int countryCount) {
+        Counter.builder(RUN_COUNTER_NAME)
+                .tag(STATUS_TAG, result.getStatus().name())
+                .register(meterRegistry)
+                .increment();
+        DistributionSummary.builder(ITERATIONS_SUMMARY_NAME)
+                .register(meterRegistry)
+                .record(result.getIterationCount());
+        DistributionSummary.builder(GENERATORS_SUMMARY_NAME)
+                .register(meterRegistry)
+                .record(generatorCount);
+        DistributionSummary.builder(COUNTRIES_SUMMARY_NAME)
+                .register(meterRegistry)
+                .record(countryCount);
+    }
+
+    /**
+     * Records the number of elements changed in a network before it is flushed.
+     */
+    public void observeFlushDelta(int changedElements) {
+        DistributionSummary.builder(FLUSH_DELTA_SUMMARY_NAME)
+                .baseUnit("elements")
+                .register(meterRegistry)
+                .record(changedElements);
+    }
+
+    /**
+     * Observes the fetch of a network like the {@link Phase#NETWORK_FETCH} phase, and records its duration by
+     * loading mode, so that the modes can be compared. What is loaded afterward on first use is not counted.
+     */
+    public <T, E extends Exception> T observeNetworkFetch(NetworkLoadingMode loadingMode, ObservedSupplier<T, E> fetch) throws E {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        T network = observe(Phase.NETWORK_FETCH, fetch);
+        sample.stop(Timer.builder(NETWORK_FETCH_TIMER_NAME)
+                .tag(LOADING_MODE_TAG, loadingMode.name())
+                .register(meterRegistry));
+        return network;
+    }
+
+    public <T> void registerGauge(String name, T stateObject, ToDoubleFunction<T> valueFunction) {
+        Gauge.builder(name, stateObject, valueFunction).register(meterRegistry);
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import java.util.Map;
+
+/**
+ * Result of a preview run, which has not been written to the network store: the targetP change of each
+ * generator and the p0 change of each load the run would have modified, by id, and the net positions
+ * reached by each country.
+ */
+public class BalancesAdjustmentPreviewResult extends BalancesAdjustmentResult {
+
+    private final Map<String, Double> targetPDeltas;
+
+    private final Map<String, Double> p0Deltas;
+
+    private final Map<String, Double> finalNetPositions;
+
+    public BalancesAdjustmentPreviewResult(BalancesAdjustmentResult result, Map<String, Double> targetPDeltas, Map<String, Double> p0Deltas,
+                                           Map<String, Double> finalNetPositions) {
+        super(result, result.getInitialNetPositions());
+        this.targetPDeltas = Map.copyOf(targetPDeltas);
+        this.p0Deltas = Map.copyOf(p0Deltas);
+        this.finalNetPositions = Map.copyOf(finalNetPositions);
+    }
+
+    public Map<String, Double> getTargetPDeltas() {
+        return targetPDeltas;
+    }
+
+    public Map<String, Double> getP0Deltas() {
+        return p0Deltas;
+    }
+
+    public Map<String, Double> getFinalNetPositions() {
+        return finalNetPositions;
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationArea;
+import com.powsybl.balances_adjustment.util.NetworkArea;
+import com.powsybl.balances_adjustment.util.NetworkAreaFactory;
+import com.powsybl.iidm.network.Bus;
+import com.powsybl.iidm.network.Network;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Follows the iterations of a balance computation through the net positions it reads after each load flow,
+ * an iteration being reported once the net position of every area has been read. The powsybl balance
+ * computation has no iteration hook: this call order is pinned by the progress test against its iteration count.
+ */
+final class BalancesAdjustmentProgress {
+
+    private final List<BalanceComputationArea> areas;
+
+    private final Map<String, Double> targetNetPositions = new HashMap<>();
+
+    private final Consumer<BalancesAdjustmentIteration> listener;
+
+    private final Map<String, Double> netPositions = new LinkedHashMap<>();
+
+    private int iteration;
+
+    private long iterationStart = System.nanoTime();
+
+    private BalancesAdjustmentProgress(List<BalanceComputationArea> areas, Consumer<BalancesAdjustmentIteration> listener) {
+        this.listener = listener;
+        this.areas = areas.stream()
+                .map(area -> {
+                    targetNetPositions.put(area.getName(), area.getTargetNetPosition());
+                    return new BalanceComputationArea(area.getName(), new ProgressNetworkAreaFactory(area.getName(), area.getNetworkAreaFactory()),
+                        area.getScalable(), area.getTargetNetPosition());
+                })
+                .toList();
+    }
+
+    /**
+     * @return the given areas, reporting the iterations of the balance computation they are given to
+     */
+    static List<BalanceComputationArea> track(List<BalanceComputationArea> areas, Consumer<BalancesAdjustmentIteration> listener) {
+        return new BalancesAdjustmentProgress(areas, listener).areas;
+    }
+
+    private synchronized void onNetPosition(String areaName, double netPosition) {
+        netPositions.put(areaName, netPosition);
+        if (netPositions.size() == targetNetPositions.size()) {
+            report();
+        }
+    }
+
+    private void report() {
+        long now = System.nanoTime();
+        Map<String, Double> mismatches = new LinkedHashMap<>();
+        netPositions.forEach((areaName, netPosition) -> mismatches.put(areaName, targetNetPositions.get(areaName) - netPosition));
+        listener.accept(new BalancesAdjustmentIteration(++iteration, Map.copyOf(netPositions), Map.copyOf(mismatches),
+            TimeUnit.NANOSECONDS.toMillis(now - iterationStart)));
+        netPositions.clear();
+        iterationStart = now;
+    }
+
+    private final class ProgressNetworkAreaFactory implements NetworkAreaFactory {
+
+        private final String areaName;
+
+        private final NetworkAreaFactory delegate;
+
+        private ProgressNetworkAreaFactory(String areaName, NetworkAreaFactory delegate) {
+            this.areaName = areaName;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public NetworkArea create(Network network) {
+            NetworkArea area = delegate.create(network);
+            return new NetworkArea() {
+                @Override
+                public double getNetPosition() {
+                    double netPosition = area.getNetPosition();
+                    onNetPosition(areaName, netPosition);
+                    return netPosition;
+                }
+
+                @Override
+                public Collection<Bus> getContainedBusViewBuses() {
+                    return area.getContainedBusViewBuses();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationParameters;
+import com.powsybl.balances_adjustment.balance_computation.json_parameters.JsonBalanceComputationParameters;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs balances adjustments through a {@link BalancesAdjustmentJobQueue} shared by the instances of the server,
+ * so that the load is spread over all of them. A run a worker cannot take is given back to the queue.
+ */
+@Service
+public class BalancesAdjustmentQueueService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BalancesAdjustmentQueueService.class);
+
+    private final BalancesAdjustmentJobService balancesAdjustmentJobService;
+
+    private final BalancesAdjustmentJobQueue queue;
+
+    private final ObjectMapper objectMapper;
+
+    private final BalanceComputationParametersProfiles parametersProfiles;
+
+    private final boolean enabled;
+
+    private final Duration timeout;
+
+    private final int maxAttempts;
+
+    private final Duration retryDelay;
+
+    // runs published by this instance and waiting for their result, by run UUID
+    private final Map<UUID, CompletableFuture<JsonNode>> pendingRuns = new ConcurrentHashMap<>();
+
+    public BalancesAdjustmentQueueService(BalancesAdjustmentJobService balancesAdjustmentJobService,
+                                          BalancesAdjustmentJobQueue queue,
+                                          ObjectMapper objectMapper,
+                                          BalanceComputationParametersProfiles parametersProfiles,
+                                          @Value("${balances-adjustment.queue.enabled:false}") boolean enabled,
+                                          @Value("${balances-adjustment.queue.timeout:PT1H}") Duration timeout,
+                                          @Value("${balances-adjustment.queue.max-attempts:3}") int maxAttempts,
+                                          @Value("${balances-adjustment.queue.retry-delay:PT1S}") Duration retryDelay) {
+        this.balancesAdjustmentJobService = balancesAdjustmentJobService;
+        this.queue = queue;
+        this.objectMapper = objectMapper;
+        this.parametersProfiles = parametersProfiles;
+        this.enabled = enabled;
+        this.timeout = timeout;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = retryDelay;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        queue.subscribeResults(this::onResult);
+        queue.subscribeRuns(this::work);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Publishes a run to the queue.
+     *
+     * @return the result of the run, as returned by the run endpoint, completed when an instance has computed it
+     */
+    public CompletableFuture<JsonNode> submit(BalancesAdjustmentRunContext context) {
+        if (!enabled) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Queued balances adjustments are disabled");
+        }
+        if (context.getGlsk() != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Queued balances adjustments do not support GLSK files");
+        }
+        UUID runUuid = UUID.randomUUID();
+        String message;
+        try {
+            message = objectMapper.writeValueAsString(toMessage(runUuid, context, Instant.now().plus(timeout)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot publish balances adjustment " + runUuid, e);
+        }
+        CompletableFuture<JsonNode> result = new CompletableFuture<>();
+        pendingRuns.put(runUuid, result);
+        try {
+            queue.publishRun(message);
+        } catch (RuntimeException e) {
+            pendingRuns.remove(runUuid);
+            throw e;
+        }
+        return result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+            .whenComplete((r, t) -> pendingRuns.remove(runUuid))
+            .exceptionally(t -> {
+                if (t instanceof TimeoutException || t.getCause() instanceof TimeoutException) {
+                    // not computed by anyone if still queued
+                    queue.removeRun(message);
+                    throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Balances adjustment " + runUuid + " not computed in time");
+                }
+                throw t instanceof RuntimeException runtimeException ? runtimeException : new IllegalStateException(t);
+            });
+    }
+
+    private void work(String message) {
+        BalancesAdjustmentRunMessage runMessage;
+        try {
+            runMessage = objectMapper.readValue(message, BalancesAdjustmentRunMessage.class);
+        } catch (JsonProcessingException e) {
+            LOGGER.error("Invalid balances adjustment run message", e);
+            return;
+        }
+        if (runMessage.deadline() != null && Instant.now().isAfter(runMessage.deadline())) {
+            LOGGER.warn("Balances adjustment {} dropped, its publisher no longer waits for it", runMessage.runUuid());
+            return;
+        }
+        BalancesAdjustmentResultMessage resultMessage = run(runMessage);
+        if (resultMessage == null) {
+            // published again
+            return;
+        }
+        try {
+            queue.publishResult(objectMapper.writeValueAsString(resultMessage));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // the publisher gets a timeout
+            LOGGER.error("Result of balances adjustment {} not published", runMessage.runUuid(), e);
+        }
+    }
+
+    /**
+     * @return the result of the run, null if it has been published again
+     * @throws BalancesAdjustmentRunRejectedException if the run is to be given back to the queue
+     */
+    private BalancesAdjustmentResultMessage run(BalancesAdjustmentRunMessage message) {
+        try {
+            return new BalancesAdjustmentResultMessage(message.runUuid(),
+                objectMapper.valueToTree(balancesAdjustmentJobService.computeBalancesAdjustment(toContext(message))), 0, null);
+        } catch (ResponseStatusException e) {
+            if (e.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
+                // not redelivered at once, so that this instance does not take it back before having a free worker
+                waitBeforeRejecting();
+                throw new BalancesAdjustmentRunRejectedException("Balances adjustment " + message.runUuid() + " rejected: " + e.getReason());
+            }
+            return new BalancesAdjustmentResultMessage(message.runUuid(), null, e.getStatusCode().value(), e.getReason());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BalancesAdjustmentRunRejectedException("Balances adjustment " + message.runUuid() + " interrupted");
+        } catch (ExecutionException | RuntimeException e) {
+            // the details are only logged by the worker instance
+            LOGGER.error("Balances adjustment {} failed", message.runUuid(), e);
+            if (message.failedAttempts() + 1 < maxAttempts && publishAgain(message)) {
+                return null;
+            }
+            return new BalancesAdjustmentResultMessage(message.runUuid(), null, HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                "Balances adjustment " + message.runUuid() + " failed");
+        }
+    }
+
+    private void waitBeforeRejecting() {
+        try {
+            Thread.sleep(retryDelay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean publishAgain(BalancesAdjustmentRunMessage message) {
+        try {
+            queue.publishRun(objectMapper.writeValueAsString(new BalancesAdjustmentRunMessage(message.runUuid(), message.networkUuid(),
+                message.otherNetworkUuids(), message.variantId(), message.parameters(), message.parametersHash(), message.targetNetPositions(),
+                message.correctNetPositionsInconsistencies(), message.preview(), message.scalingStrategy(), message.loadingMode(),
+                message.deadline(), message.failedAttempts() + 1)));
+            return true;
+        } catch (JsonProcessingException | RuntimeException e) {
+            LOGGER.error("Balances adjustment {} not published again", message.runUuid(), e);
+            return false;
+        }
+    }
+
+    private void onResult(String message) {
+        BalancesAdjustmentResultMessage resultMessage;
+        try {
+            resultMessage = objectMapper.readValue(message, BalancesAdjustmentResultMessage.class);
+        } catch (JsonProcessingException e) {
+            LOGGER.error("Invalid balances adjustment result message", e);
+            return;
+        }
+        // results of the runs published by the other instances are ignored
+        CompletableFuture<JsonNode> result = pendingRuns.get(resultMessage.runUuid());
+        if (result == null) {
+            return;
+        }
+        if (resultMessage.errorStatus() != 0) {
+            result.completeExceptionally(new ResponseStatusException(HttpStatus.valueOf(resultMessage.errorStatus()), resultMessage.errorMessage()));
+        } else {
+            result.complete(resultMessage.result());
+        }
+    }
+
+    private static BalancesAdjustmentRunMessage toMessage(UUID runUuid, BalancesAdjustmentRunContext context, Instant deadline) {
+        String parameters = null;
+        if (context.getParameters() != null) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            JsonBalanceComputationParameters.write(context.getParameters(), output);
+            parameters = output.toString(StandardCharsets.UTF_8);
+        }
+        return new BalancesAdjustmentRunMessage(runUuid, context.getNetworkUuid(), context.getOtherNetworkUuids(), context.getVariantId(),
+            parameters, context.getParametersHash(), context.getTargetNetPositions(), context.isCorrectNetPositionsInconsistencies(),
+            context.isPreview(), context.getScalingStrategy(), context.getLoadingMode(), deadline, 0);
+    }
+
+    private BalancesAdjustmentRunContext toContext(BalancesAdjustmentRunMessage message) {
+        // parsed once by instance for the runs sharing the same parameters
+        BalanceComputationParameters parameters = message.parameters() != null
+            ? parametersProfiles.getFromFile(message.parameters().getBytes(StandardCharsets.UTF_8))
+            : null;
+        BalancesAdjustmentRunContext context = new BalancesAdjustmentRunContext(message.networkUuid(), parameters, message.targetNetPositions())
+            .setOtherNetworkUuids(message.otherNetworkUuids())
+            .setVariantId(message.variantId())
+            .setCorrectNetPositionsInconsistencies(message.correctNetPositionsInconsistencies())
+            .setPreview(message.preview())
+            .setScalingStrategy(message.scalingStrategy())
+            .setLoadingMode(message.loadingMode());
+        if (message.parametersHash() != null) {
+            context.setParametersHash(message.parametersHash());
+        }
+        return context;
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationResult;
+
+import java.util.Map;
+
+/**
+ * Balance computation result completed with the net positions of the countries before the adjustment.
+ */
+public class BalancesAdjustmentResult extends BalanceComputationResult {
+
+    private final Map<String, Double> initialNetPositions;
+
+    public BalancesAdjustmentResult(BalanceComputationResult result, Map<String, Double> initialNetPositions) {
+        super(result.getStatus(), result.getIterationCount(), result.getBalancedScalingMap());
+        this.initialNetPositions = Map.copyOf(initialNetPositions);
+    }
+
+    public Map<String, Double> getInitialNetPositions() {
+        return initialNetPositions;
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Size bounded LRU cache of the results of the single network runs, by cached network version and request key,
+ * forgotten with their network. A flushed result is also stored under the version created by its flush.
+ */
+@Component
+public class BalancesAdjustmentResultCache {
+
+    private record CachedResult(BalanceComputationResult result, Instant storeDate) {
+    }
+
+    private final int maxSize;
+
+    private final Duration ttl;
+
+    private final Map<String, CachedResult> results;
+
+    public BalancesAdjustmentResultCache(@Value("${balances-adjustment.result-cache.max-size:0}") int maxSize,
+                                         @Value("${balances-adjustment.result-cache.ttl:PT10M}") Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                return size() > BalancesAdjustmentResultCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the key of a run in the cache, or null if the run cannot be cached
+     */
+    public String getRequestKey(BalancesAdjustmentRunContext context) {
+        if (maxSize <= 0 || !context.getOtherNetworkUuids().isEmpty()) {
+            return null;
+        }
+        return context.getRequestKey();
+    }
+
+    /**
+     * @return the result of the run identified by the given key on the given version of a cached network, null if not cached
+     */
+    public BalanceComputationResult get(NetworkCache.CachedNetwork cachedNetwork, long version, String requestKey) {
+        String key = getKey(cachedNetwork, version, requestKey);
+        synchronized (results) {
+            CachedResult cachedResult = results.get(key);
+            if (cachedResult == null) {
+                return null;
+            }
+            if (cachedResult.storeDate().isBefore(Instant.now().minus(ttl))) {
+                results.remove(key);
+                return null;
+            }
+            return cachedResult.result();
+        }
+    }
+
+    public void put(NetworkCache.CachedNetwork cachedNetwork, long version, String requestKey, BalanceComputationResult result) {
+        CachedResult cachedResult = new CachedResult(result, Instant.now());
+        synchronized (results) {
+            results.put(getKey(cachedNetwork, version, requestKey), cachedResult);
+        }
+    }
+
+    /**
+     * Forgets the results computed on a network, invalidated in the network cache.
+     */
+    public void invalidate(UUID networkUuid) {
+        String prefix = networkUuid + "/";
+        synchronized (results) {
+            results.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    private static String getKey(NetworkCache.CachedNetwork cachedNetwork, long version, String requestKey) {
+        return cachedNetwork.getNetworkUuid() + "/" + cachedNetwork.getLoadId() + "/" + version + "/" + requestKey;
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.UUID;
+
+/**
+ * Outcome of a queued run, as published to the {@link BalancesAdjustmentJobQueue}: the result as returned by the
+ * run endpoint, or the HTTP status and message of the error which prevented computing it.
+ */
+public record BalancesAdjustmentResultMessage(UUID runUuid, JsonNode result, int errorStatus, String errorMessage) {
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationParameters;
+import com.powsybl.iidm.network.VariantManagerConstants;
+import org.gridsuite.balances.adjustment.server.importer.Glsk;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.UUID;
+
+/**
+ * Inputs of a single balances adjustment run, fully read from the request so that
+ * the run can be executed outside of the request thread.
+ */
+public class BalancesAdjustmentRunContext {
+
+    static final String DEFAULT_PARAMETERS_HASH = "default";
+
+    private final UUID networkUuid;
+
+    private final BalanceComputationParameters parameters;
+
+    private final Map<String, Double> targetNetPositions;
+
+    private boolean correctNetPositionsInconsistencies = true;
+
+    private List<UUID> otherNetworkUuids = List.of();
+
+    private String variantId = VariantManagerConstants.INITIAL_VARIANT_ID;
+
+    private BalancesAdjustmentWarmStart warmStart;
+
+    private boolean preview;
+
+    private ScalingStrategy scalingStrategy = ScalingStrategy.TARGET_P;
+
+    private Glsk glsk;
+
+    private String parametersHash;
+
+    private Consumer<BalancesAdjustmentIteration> progressListener;
+
+    private NetworkLoadingMode loadingMode;
+
+    private BooleanSupplier flushGuard;
+
+    public BalancesAdjustmentRunContext(UUID networkUuid, BalanceComputationParameters parameters, Map<String, Double> targetNetPositions) {
+        this.networkUuid = Objects.requireNonNull(networkUuid);
+        this.parameters = parameters != null ? parameters : new BalanceComputationParameters();
+        this.parametersHash = parameters != null ? null : DEFAULT_PARAMETERS_HASH;
+        this.targetNetPositions = Objects.requireNonNull(targetNetPositions);
+    }
+
+    public UUID getNetworkUuid() {
+        return networkUuid;
+    }
+
+    public BalanceComputationParameters getParameters() {
+        return parameters;
+    }
+
+    public Map<String, Double> getTargetNetPositions() {
+        return targetNetPositions;
+    }
+
+    public boolean isCorrectNetPositionsInconsistencies() {
+        return correctNetPositionsInconsistencies;
+    }
+
+    public BalancesAdjustmentRunContext setCorrectNetPositionsInconsistencies(boolean correctNetPositionsInconsistencies) {
+        this.correctNetPositionsInconsistencies = correctNetPositionsInconsistencies;
+        return this;
+    }
+
+    /**
+     * Networks merged with the main one to be balanced as a single network, e.g. the other IGMs of a CGM.
+     */
+    public List<UUID> getOtherNetworkUuids() {
+        return otherNetworkUuids;
+    }
+
+    public BalancesAdjustmentRunContext setOtherNetworkUuids(List<UUID> otherNetworkUuids) {
+        this.otherNetworkUuids = otherNetworkUuids != null ? List.copyOf(otherNetworkUuids) : List.of();
+        return this;
+    }
+
+    /**
+     * Variant of the network which is adjusted and flushed, the initial one by default.
+     * Merged runs only support the initial variant.
+     */
+    public String getVariantId() {
+        return variantId;
+    }
+
+    public BalancesAdjustmentRunContext setVariantId(String variantId) {
+        this.variantId = variantId != null ? variantId : VariantManagerConstants.INITIAL_VARIANT_ID;
+        return this;
+    }
+
+    /**
+     * State shared by consecutive runs, null when the run does not have to start from a previous one.
+     */
+    public BalancesAdjustmentWarmStart getWarmStart() {
+        return warmStart;
+    }
+
+    public BalancesAdjustmentRunContext setWarmStart(BalancesAdjustmentWarmStart warmStart) {
+        this.warmStart = warmStart;
+        return this;
+    }
+
+    /**
+     * Whether the run is only a preview: it is computed on a private copy of the network and never flushed,
+     * its result being a {@link BalancesAdjustmentPreviewResult}.
+     */
+    public boolean isPreview() {
+        return preview;
+    }
+
+    public BalancesAdjustmentRunContext setPreview(boolean preview) {
+        this.preview = preview;
+        return this;
+    }
+
+    /**
+     * How the injections of each country are shifted, generators in proportion of their targetP by default.
+     */
+    public ScalingStrategy getScalingStrategy() {
+        return scalingStrategy;
+    }
+
+    public BalancesAdjustmentRunContext setScalingStrategy(ScalingStrategy scalingStrategy) {
+        this.scalingStrategy = scalingStrategy != null ? scalingStrategy : ScalingStrategy.TARGET_P;
+        return this;
+    }
+
+    /**
+     * Custom keys of the countries they cover, the other ones using the scaling strategy. Null if none.
+     */
+    public Glsk getGlsk() {
+        return glsk;
+    }
+
+    public BalancesAdjustmentRunContext setGlsk(Glsk glsk) {
+        this.glsk = glsk;
+        return this;
+    }
+
+    /**
+     * Identifies the content of the parameters (see {@link BalancesAdjustmentResultCache}), null when unknown,
+     * the run then not being cached.
+     */
+    public String getParametersHash() {
+        return parametersHash;
+    }
+
+    public BalancesAdjustmentRunContext setParametersHash(String parametersHash) {
+        this.parametersHash = parametersHash;
+        return this;
+    }
+
+    /**
+     * Notified of each iteration of the balance computation, null if none. An identical run in progress being
+     * shared (see {@link #getRequestKey()}), only the listener of the first of them is notified.
+     */
+    public Consumer<BalancesAdjustmentIteration> getProgressListener() {
+        return progressListener;
+    }
+
+    public BalancesAdjustmentRunContext setProgressListener(Consumer<BalancesAdjustmentIteration> progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    /**
+     * How the networks are loaded if they are not cached, null for the configured mode.
+     */
+    public NetworkLoadingMode getLoadingMode() {
+        return loadingMode;
+    }
+
+    public BalancesAdjustmentRunContext setLoadingMode(NetworkLoadingMode loadingMode) {
+        this.loadingMode = loadingMode;
+        return this;
+    }
+
+    /**
+     * Called under the network lock right before flushing, the run not being flushed if it returns false.
+     */
+    public BalancesAdjustmentRunContext setFlushGuard(BooleanSupplier flushGuard) {
+        this.flushGuard = flushGuard;
+        return this;
+    }
+
+    public boolean startFlush() {
+        return flushGuard == null || flushGuard.getAsBoolean();
+    }
+
+    /**
+     * Hash of the inputs of the run, identical for the requests which compute the same result on the same
+     * state of the networks, or null if some inputs cannot be identified (parameters of unknown content,
+     * GLSK file or warm start).
+     */
+    public String getRequestKey() {
+        if (parametersHash == null || glsk != null || warmStart != null) {
+            return null;
+        }
+        StringBuilder inputs = new StringBuilder()
+            .append(networkUuid).append(otherNetworkUuids).append('\n')
+            .append(variantId).append('\n')
+            .append(parametersHash).append('\n')
+            .append(scalingStrategy).append('\n')
+            .append(correctNetPositionsInconsistencies).append('\n')
+            .append(preview).append('\n');
+        // sorted, so that the hash does not depend on the order of the targets in the file
+        new TreeMap<>(targetNetPositions).forEach((area, targetNetPosition) ->
+            inputs.append(area).append('=').append(targetNetPosition).append('\n'));
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(inputs.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A queued run, as published to the {@link BalancesAdjustmentJobQueue}: the inputs of its
+ * {@link BalancesAdjustmentRunContext}, the parameters being given as their JSON document, the date after
+ * which its publisher no longer waits for it, and the number of times it has already failed.
+ */
+public record BalancesAdjustmentRunMessage(UUID runUuid, UUID networkUuid, List<UUID> otherNetworkUuids, String variantId,
+                                           String parameters, String parametersHash, Map<String, Double> targetNetPositions,
+                                           boolean correctNetPositionsInconsistencies, boolean preview,
+                                           ScalingStrategy scalingStrategy, NetworkLoadingMode loadingMode, Instant deadline,
+                                           int failedAttempts) {
+}
@@ -0,0 +1,18 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+/**
+ * Thrown by the worker of a {@link BalancesAdjustmentJobQueue} which does not take a run, so that the broker
+ * delivers it again, to this instance or to another one.
+ */
+public class BalancesAdjustmentRunRejectedException extends RuntimeException {
+
+    public BalancesAdjustmentRunRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,27 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Parameters of a request to the run endpoint, shared by the direct run, the queued run and the job submission.
+ */
+public record BalancesAdjustmentRunRequest(
+    MultipartFile balanceComputationParamsFile,
+    @Parameter(description = "Id of a registered balance computation parameters profile, instead of a parameters file")
+    String parametersProfile,
+    MultipartFile targetNetPositionFile,
+    @Parameter(description = "Only preview the adjustment: nothing is written to the network, the generators targetP and loads p0 changes and the final net positions are returned")
+    boolean preview,
+    @Parameter(description = "How the injections of each country are shifted, TARGET_P by default")
+    ScalingStrategy scalingStrategy,
+    @Parameter(description = "How the networks are loaded if they are not cached, the configured mode by default")
+    NetworkLoadingMode loadingMode,
+    MultipartFile glskFile) {
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationParameters;
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationResult;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.VariantManagerConstants;
+import com.powsybl.iidm.serde.NetworkSerDe;
+import jakarta.annotation.PreDestroy;
+import org.gridsuite.balances.adjustment.server.importer.TargetNetPositionsScenario;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Runs several target net positions scenarios on the same network, loaded only once: the flushed scenario, if any,
+ * like a single run, the other ones in parallel on in-memory copies of the network.
+ */
+@Service
+public class BalancesAdjustmentScenariosService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BalancesAdjustmentScenariosService.class);
+
+    private final BalancesAdjustmentService balancesAdjustmentService;
+
+    private final NetworkCache networkCache;
+
+    private final BalancesAdjustmentMemoryBudget memoryBudget;
+
+    private final int parallelism;
+
+    private final ExecutorService scenariosExecutor;
+
+    public BalancesAdjustmentScenariosService(BalancesAdjustmentService balancesAdjustmentService,
+                                              NetworkCache networkCache,
+                                              BalancesAdjustmentMemoryBudget memoryBudget,
+                                              @Value("${balances-adjustment.scenarios.parallelism:2}") int parallelism) {
+        this.balancesAdjustmentService = balancesAdjustmentService;
+        this.networkCache = networkCache;
+        this.memoryBudget = memoryBudget;
+        this.parallelism = parallelism;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scenariosExecutor = Executors.newFixedThreadPool(parallelism,
+            runnable -> new Thread(runnable, "balances-adjustment-scenario-" + threadCount.incrementAndGet()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scenariosExecutor.shutdownNow();
+    }
+
+    /**
+     * Each scenario result is given to the consumer as soon as it is computed.
+     *
+     * @param loadingMode how the network is loaded, null for the configured one
+     */
+    public void computeBalancesAdjustmentScenarios(UUID networkUuid, BalanceComputationParameters parameters, NetworkLoadingMode loadingMode,
+                                                   List<TargetNetPositionsScenario> scenarios,
+                                                   Consumer<BalancesAdjustmentScenarioResult> resultConsumer) throws ExecutionException, InterruptedException {
+        checkScenarios(scenarios);
+        List<TargetNetPositionsScenario> whatIfScenarios = scenarios.stream().filter(scenario -> !scenario.flush()).toList();
+        int copyCount = Math.min(parallelism, whatIfScenarios.size());
+        boolean flushed = whatIfScenarios.size() < scenarios.size();
+        List<ReentrantLock> locks = balancesAdjustmentService.lockNetworks(List.of(networkUuid));
+        // reserved once locked like a single run: the network and its copies
+        try (BalancesAdjustmentMemoryBudget.Reservation reservation = memoryBudget.reserve(List.of(networkUuid), copyCount)) {
+            // loaded once the previous run on the network, if any, has been flushed
+            NetworkCache.CachedNetwork cachedNetwork = networkCache.get(networkUuid, loadingMode);
+            BlockingQueue<Network> networkCopies = new LinkedBlockingQueue<>();
+            // the copies have the same keys as the network, computed once for all the what-if scenarios
+            CountryDistributionKeys distributionKeys = null;
+            if (copyCount > 0) {
+                cachedNetwork.getLock().lockInterruptibly();
+                try {
+                    distributionKeys = cachedNetwork.getDistributionKeys(VariantManagerConstants.INITIAL_VARIANT_ID, ScalingStrategy.TARGET_P,
+                        () -> CountryDistributionKeys.of(cachedNetwork.getNetwork(), ScalingStrategy.TARGET_P));
+                    for (int i = 0; i < copyCount; i++) {
+                        networkCopies.add(NetworkSerDe.copy(cachedNetwork.getNetwork()));
+                    }
+                } finally {
+                    cachedNetwork.getLock().unlock();
+                }
+            }
+            if (!flushed) {
+                // the what-if scenarios only use the copies, the other runs on the network can go on
+                BalancesAdjustmentService.unlockNetworks(locks);
+                locks = List.of();
+            }
+            runScenarios(networkUuid, parameters, loadingMode, scenarios, cachedNetwork, networkCopies, distributionKeys, resultConsumer);
+        } finally {
+            BalancesAdjustmentService.unlockNetworks(locks);
+        }
+    }
+
+    public static void checkScenarios(List<TargetNetPositionsScenario> scenarios) {
+        if (scenarios.stream().filter(TargetNetPositionsScenario::flush).count() > 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most one scenario can be flushed");
+        }
+    }
+
+    /**
+     * @param cachedNetwork the network, locked by the caller until the flushed scenario, if any, is computed
+     */
+    private void runScenarios(UUID networkUuid, BalanceComputationParameters parameters, NetworkLoadingMode loadingMode,
+                              List<TargetNetPositionsScenario> scenarios, NetworkCache.CachedNetwork cachedNetwork, BlockingQueue<Network> networkCopies,
+                              CountryDistributionKeys distributionKeys, Consumer<BalancesAdjustmentScenarioResult> resultConsumer) throws ExecutionException, InterruptedException {
+        List<Future<?>> runs = new ArrayList<>();
+        for (TargetNetPositionsScenario scenario : scenarios) {
+            BalancesAdjustmentRunContext context = new BalancesAdjustmentRunContext(networkUuid, parameters, scenario.targetNetPositions().toMap())
+                    .setLoadingMode(loadingMode);
+            runs.add(scenariosExecutor.submit(() -> {
+                BalancesAdjustmentScenarioResult scenarioResult;
+                try {
+                    BalanceComputationResult result = scenario.flush()
+                        ? balancesAdjustmentService.computeBalancesAdjustmentWithLock(context, cachedNetwork, null)
+                        : balancesAdjustmentService.computeBalancesAdjustmentOnCopy(context, networkCopies, distributionKeys);
+                    scenarioResult = new BalancesAdjustmentScenarioResult(scenario.id(), result,
+                        scenario.flush() && result.getStatus() == BalanceComputationResult.Status.SUCCESS, null);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    LOGGER.error("Balances adjustment of scenario {} on network {} failed", scenario.id(), networkUuid, e);
+                    scenarioResult = new BalancesAdjustmentScenarioResult(scenario.id(), null, false, e.getMessage());
+                }
+                synchronized (resultConsumer) {
+                    resultConsumer.accept(scenarioResult);
+                }
+            }));
+        }
+        try {
+            for (Future<?> run : runs) {
+                BalancesAdjustmentService.getUnwrapped(run);
+            }
+        } finally {
+            runs.forEach(run -> run.cancel(true));
+        }
+    }
+}
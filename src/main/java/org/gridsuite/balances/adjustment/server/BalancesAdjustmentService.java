@@ -7,19 +7,21 @@
 package org.gridsuite.balances.adjustment.server;
 
 import com.powsybl.balances_adjustment.balance_computation.*;
-import com.powsybl.balances_adjustment.util.CountryAreaFactory;
 import com.powsybl.balances_adjustment.util.NetworkAreaFactory;
-import com.powsybl.commons.PowsyblException;
+import com.powsybl.computation.ComputationManager;
 import com.powsybl.computation.local.LocalComputationManagerFactory;
 import com.powsybl.iidm.modification.scalable.Scalable;
 import com.powsybl.iidm.network.*;
+import com.powsybl.iidm.serde.NetworkSerDe;
 import com.powsybl.loadflow.LoadFlow;
 import com.powsybl.network.store.client.NetworkStoreService;
-import com.powsybl.network.store.client.PreloadingStrategy;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.gridsuite.balances.adjustment.server.importer.TargetNetPositionsImporter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -28,9 +30,13 @@ import org.springframework.web.server.ResponseStatusException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Nicolas Noir <nicolas.noir at rte-france.com>
@@ -41,39 +47,129 @@ public class BalancesAdjustmentService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BalancesAdjustmentService.class);
     private static final double MAXIMUM_NET_POSITION_MISMATCH_BEFORE_REDISPATCH = 1.;
+    private static final String WORKING_VARIANT_ID_PREFIX = "balances-adjustment-";
+    private static final String MERGED_NETWORK_ID = "balances-adjustment-merge";
+    private static final Country[] COUNTRIES = Country.values();
+    // the balance computation areas are named after their country
+    private static final Map<String, Country> COUNTRIES_BY_NAME = Arrays.stream(COUNTRIES)
+            .collect(Collectors.toMap(Country::getName, Function.identity(), (country, otherCountry) -> country));
 
     @Autowired
-    private NetworkStoreService networkStoreService;
+    private NetworkCache networkCache;
 
-    private Network getNetwork(UUID networkUuid) {
-        try {
-            return networkStoreService.getNetwork(networkUuid, PreloadingStrategy.COLLECTION);
-        } catch (PowsyblException e) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Network '" + networkUuid + "' not found");
-        }
-    }
-
-    private void fixMinP(Network network, List<BalanceComputationArea> areas) {
-        // For all generators in the balance computation areas, we set the minP to targetP when targetP < minP
-        areas.forEach(area -> {
-            List<Injection> injections = area.getScalable().filterInjections(network);
-            injections.stream().filter(injection -> injection instanceof Generator)
-                    .map(injection -> (Generator) injection)
-                    .forEach(generator -> {
-                        if (generator.getTargetP() < generator.getMinP()) {
-                            generator.setMinP(generator.getTargetP());
-                        }
-                    });
-        });
+    @Autowired
+    private BalancesAdjustmentObserver observer;
+
+    @Autowired
+    private BalancesAdjustmentResultCache resultCache;
+
+    @Autowired
+    private BalancesAdjustmentMemoryBudget memoryBudget;
+
+    @Value("${balances-adjustment.network-store.parallelism:4}")
+    private int networkStoreParallelism;
+
+    private ExecutorService networkStoreExecutor;
+
+    @Value("${balances-adjustment.areas.parallelism:0}")
+    private int areasParallelism;
+
+    // null when the areas are created sequentially
+    private ForkJoinPool areasPool;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${balances-adjustment.jobs.pool-size:4}")
+    private int computationParallelism;
+
+    // with virtual threads only: platform threads running the CPU bound part of the runs
+    private ExecutorService computationExecutor;
+
+    // shared by all the runs
+    private LoadFlow.Runner loadFlowRunner;
+
+    private ComputationManager computationManager;
+
+    @Value("${balances-adjustment.network-locks.stripes:256}")
+    private int networkLockStripes;
+
+    // runs on the same network are executed one after the other
+    private ReentrantLock[] networkLocks;
+
+    // identical runs in progress, by request key
+    private final Map<String, InFlightRun> inFlightRuns = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        loadFlowRunner = LoadFlow.find();
+        computationManager = new LocalComputationManagerFactory().create();
+        networkLocks = new ReentrantLock[networkLockStripes];
+        Arrays.setAll(networkLocks, stripe -> new ReentrantLock());
+        if (virtualThreads) {
+            // network store calls mostly wait for I/O: a virtual thread per call, the computations being bounded instead
+            networkStoreExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("balances-adjustment-network-store-", 1).factory());
+            AtomicInteger computationThreadCount = new AtomicInteger();
+            computationExecutor = Executors.newFixedThreadPool(computationParallelism,
+                runnable -> new Thread(runnable, "balances-adjustment-computation-" + computationThreadCount.incrementAndGet()));
+        } else {
+            AtomicInteger networkStoreThreadCount = new AtomicInteger();
+            networkStoreExecutor = Executors.newFixedThreadPool(networkStoreParallelism,
+                runnable -> new Thread(runnable, "balances-adjustment-network-store-" + networkStoreThreadCount.incrementAndGet()));
+        }
+        if (areasParallelism > 0) {
+            areasPool = new ForkJoinPool(areasParallelism);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        networkStoreExecutor.shutdownNow();
+        if (computationExecutor != null) {
+            computationExecutor.shutdownNow();
+        }
+        if (areasPool != null) {
+            areasPool.shutdownNow();
+        }
+        computationManager.close();
     }
 
-    private void integrateCompensation(Network network) {
-        // For all generators in the network, we set the targetP to -P
-        network.getGenerators().forEach(generator -> {
-            if (!Double.isNaN(generator.getTerminal().getP())) {
-                generator.setTargetP(-generator.getTerminal().getP());
+    /**
+     * Lowers the minP of the scaled generators to their targetP when it is below, then sets every targetP to -P,
+     * in a single pass over the generators. The changed generators are added to the given delta.
+     */
+    void preprocess(Network network, CountryDistributionKeys distributionKeys, List<BalanceComputationArea> areas, NetworkVariantDelta delta) {
+        boolean[] scaledCountries = new boolean[COUNTRIES.length];
+        for (BalanceComputationArea area : areas) {
+            Country country = COUNTRIES_BY_NAME.get(area.getName());
+            if (country != null) {
+                scaledCountries[country.ordinal()] = true;
             }
-        });
+        }
+        for (VoltageLevel voltageLevel : network.getVoltageLevels()) {
+            Country country = voltageLevel.getSubstation().flatMap(Substation::getCountry).orElse(null);
+            CountryDistributionKeys.DistributionKeys keys = country != null && scaledCountries[country.ordinal()] ? distributionKeys.getKeys(country) : null;
+            for (Generator generator : voltageLevel.getGenerators()) {
+                double targetP = generator.getTargetP();
+                if (keys != null && targetP < generator.getMinP() && keys.containsGenerator(generator.getId())) {
+                    generator.setMinP(targetP);
+                    delta.addGenerator(generator.getId());
+                }
+                double p = generator.getTerminal().getP();
+                if (!Double.isNaN(p) && targetP != -p) {
+                    generator.setTargetP(-p);
+                    delta.addGenerator(generator.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets what is known of a network modified by another service.
+     */
+    public void invalidateNetwork(UUID networkUuid) {
+        networkCache.invalidate(networkUuid);
+        resultCache.invalidate(networkUuid);
     }
 
     public BalanceComputationResult computeBalancesAdjustment(UUID networkUuid, BalanceComputationParameters parameters,
@@ -85,44 +181,521 @@ public class BalancesAdjustmentService {
                                                               BalanceComputationParameters parameters,
                                                               InputStream targetNetPositionsStream,
                                                               boolean correctNetPositionsInconsistencies) throws ExecutionException, InterruptedException, IOException {
-        Network network;
-        List<Network> listNetworks = new ArrayList<>();
+        Map<String, Double> targetNetPositions = observer.observe(BalancesAdjustmentObserver.Phase.TARGETS_PARSING,
+            () -> TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(targetNetPositionsStream));
+        return computeBalancesAdjustment(new BalancesAdjustmentRunContext(networkUuid, parameters, targetNetPositions)
+                .setCorrectNetPositionsInconsistencies(correctNetPositionsInconsistencies));
+    }
 
-        network = getNetwork(networkUuid);
-        listNetworks.add(network);
+    /**
+     * Runs a balances adjustment. Identical requests in progress at the same time (see
+     * {@link BalancesAdjustmentRunContext#getRequestKey()}) share the same computation and result, the other
+     * runs on the same network being executed one after the other.
+     */
+    public BalanceComputationResult computeBalancesAdjustment(BalancesAdjustmentRunContext context) throws ExecutionException, InterruptedException {
+        String inFlightKey = context.getRequestKey();
+        if (inFlightKey == null) {
+            return computeBalancesAdjustmentOnce(context);
+        }
+        while (true) {
+            InFlightRun run = new InFlightRun();
+            InFlightRun inFlightRun = inFlightRuns.putIfAbsent(inFlightKey, run);
+            Consumer<BalancesAdjustmentIteration> progressListener = context.getProgressListener();
+            if (inFlightRun == null) {
+                // the iterations are also reported to the identical requests waiting for this run
+                context.setProgressListener(iteration -> {
+                    if (progressListener != null) {
+                        progressListener.accept(iteration);
+                    }
+                    run.onIteration(iteration);
+                });
+                try {
+                    BalanceComputationResult result = computeBalancesAdjustmentOnce(context);
+                    run.result.complete(result);
+                    return result;
+                } catch (Throwable e) {
+                    run.result.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlightRuns.remove(inFlightKey, run);
+                    context.setProgressListener(progressListener);
+                }
+            }
+            if (progressListener != null) {
+                inFlightRun.addFollower(progressListener);
+            }
+            try {
+                return getUnwrapped(inFlightRun.result);
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof InterruptedException)) {
+                    throw e;
+                }
+                // the shared run has been cancelled, not this one: computed by the first of its followers
+            } finally {
+                if (progressListener != null) {
+                    inFlightRun.removeFollower(progressListener);
+                }
+            }
+        }
+    }
 
-        BalanceComputationParameters params = parameters != null ? parameters : new BalanceComputationParameters();
-        Map<String, Double> targetNetPositions = TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(targetNetPositionsStream);
+    /**
+     * A run shared by identical requests, forwarding its iterations to the requests waiting for it. The followers
+     * are job listeners, which only buffer the iterations: they are notified while the run is locked, so that a
+     * follower joining late gets the iterations already computed first, then the next ones, in order.
+     */
+    private static final class InFlightRun {
 
-        BalanceComputationFactory balanceComputationFactory = new BalanceComputationFactoryImpl();
-        List<BalanceComputationArea> computationAreas = createBalanceComputationAreas(network, targetNetPositions, correctNetPositionsInconsistencies);
-        BalanceComputation balanceComputation = balanceComputationFactory.create(computationAreas, LoadFlow.find(), new LocalComputationManagerFactory().create());
+        private final CompletableFuture<BalanceComputationResult> result = new CompletableFuture<>();
 
-        fixMinP(network, computationAreas);
-        integrateCompensation(network);
+        private final Deque<BalancesAdjustmentIteration> iterations = new ArrayDeque<>();
 
-        // launch the balances adjustment on the network
-        CompletableFuture<BalanceComputationResult> futureResult = balanceComputation.run(network, VariantManagerConstants.INITIAL_VARIANT_ID, params);
+        private final List<Consumer<BalancesAdjustmentIteration>> followers = new ArrayList<>();
 
-        BalanceComputationResult result = futureResult.get();
+        private synchronized void onIteration(BalancesAdjustmentIteration iteration) {
+            if (iterations.size() == BalancesAdjustmentJob.MAX_ITERATIONS) {
+                iterations.removeFirst();
+            }
+            iterations.addLast(iteration);
+            followers.forEach(follower -> follower.accept(iteration));
+        }
+
+        private synchronized void addFollower(Consumer<BalancesAdjustmentIteration> follower) {
+            iterations.forEach(follower);
+            followers.add(follower);
+        }
+
+        private synchronized void removeFollower(Consumer<BalancesAdjustmentIteration> follower) {
+            followers.remove(follower);
+        }
+    }
+
+    private BalanceComputationResult computeBalancesAdjustmentOnce(BalancesAdjustmentRunContext context) throws ExecutionException, InterruptedException {
+        if (context.isPreview()) {
+            return computePreview(context);
+        }
+        if (!context.getOtherNetworkUuids().isEmpty()) {
+            return computeMergedBalancesAdjustment(context);
+        }
+        // results are only kept with the networks they have been computed on
+        String requestKey = networkCache.isEnabled() ? resultCache.getRequestKey(context) : null;
+        if (requestKey != null) {
+            // answered without loading the network
+            NetworkCache.CachedNetwork cachedNetwork = networkCache.getIfCached(context.getNetworkUuid());
+            BalanceComputationResult cachedResult = cachedNetwork != null ? resultCache.get(cachedNetwork, cachedNetwork.getVersion(), requestKey) : null;
+            if (cachedResult != null) {
+                return cachedResult;
+            }
+        }
+        List<ReentrantLock> locks = lockNetworks(List.of(context.getNetworkUuid()));
+        // reserved once locked, so that a run never holds memory while waiting for another one
+        try (BalancesAdjustmentMemoryBudget.Reservation reservation = memoryBudget.reserve(List.of(context.getNetworkUuid()), 0)) {
+            // loaded once the previous run on the network, if any, has been flushed
+            NetworkCache.CachedNetwork cachedNetwork = networkCache.get(context.getNetworkUuid(), context.getLoadingMode());
+            return computeBalancesAdjustmentWithLock(context, cachedNetwork, requestKey);
+        } finally {
+            unlockNetworks(locks);
+        }
+    }
+
+    /**
+     * Locks the stripes of the given networks, always in the same order to avoid deadlocks between runs on
+     * overlapping networks. A stripe is shared by all the networks with the same hash modulo the number of
+     * stripes: with enough stripes, runs on different networks seldom wait for each other.
+     */
+    List<ReentrantLock> lockNetworks(Collection<UUID> networkUuids) throws InterruptedException {
+        List<ReentrantLock> locks = networkUuids.stream()
+                .mapToInt(networkUuid -> Math.floorMod(networkUuid.hashCode(), networkLocks.length))
+                .distinct()
+                .sorted()
+                .mapToObj(stripe -> networkLocks[stripe])
+                .toList();
+        List<ReentrantLock> lockedLocks = new ArrayList<>(locks.size());
+        try {
+            for (ReentrantLock lock : locks) {
+                lock.lockInterruptibly();
+                lockedLocks.add(lock);
+            }
+        } catch (InterruptedException e) {
+            unlockNetworks(lockedLocks);
+            throw e;
+        }
+        return lockedLocks;
+    }
+
+    static void unlockNetworks(List<ReentrantLock> locks) {
+        locks.forEach(ReentrantLock::unlock);
+    }
+
+    /**
+     * @param requestKey identifies the run in the result cache, null if the run is not cached
+     */
+    BalanceComputationResult computeBalancesAdjustmentWithLock(BalancesAdjustmentRunContext context, NetworkCache.CachedNetwork cachedNetwork,
+                                                               String requestKey) throws ExecutionException, InterruptedException {
+        cachedNetwork.getLock().lockInterruptibly();
+        try {
+            if (requestKey == null) {
+                return computeBalancesAdjustment(context, cachedNetwork);
+            }
+            long version = cachedNetwork.getVersion();
+            // the same run may have been completed while waiting for the lock
+            BalanceComputationResult result = resultCache.get(cachedNetwork, version, requestKey);
+            if (result == null) {
+                result = computeBalancesAdjustment(context, cachedNetwork);
+                resultCache.put(cachedNetwork, version, requestKey, result);
+                if (cachedNetwork.getVersion() != version) {
+                    // flushed: the same request on the new version is a retry, which must not adjust the network again
+                    resultCache.put(cachedNetwork, cachedNetwork.getVersion(), requestKey, result);
+                }
+            }
+            return result;
+        } catch (RuntimeException e) {
+            // the cached network may have been left in an unknown state
+            invalidateNetwork(context.getNetworkUuid());
+            throw e;
+        } finally {
+            cachedNetwork.getLock().unlock();
+        }
+    }
+
+    private BalanceComputationResult computeBalancesAdjustment(BalancesAdjustmentRunContext context, NetworkCache.CachedNetwork cachedNetwork) throws ExecutionException, InterruptedException {
+        Network network = cachedNetwork.getNetwork();
+        String variantId = context.getVariantId();
+        if (!network.getVariantManager().getVariantIds().contains(variantId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Variant '" + variantId + "' of network '" + context.getNetworkUuid() + "' not found");
+        }
+        String workingVariantId = WORKING_VARIANT_ID_PREFIX + UUID.randomUUID();
+        network.getVariantManager().cloneVariant(variantId, workingVariantId);
+        try {
+            CountryDistributionKeys distributionKeys = cachedNetwork.getDistributionKeys(variantId, context.getScalingStrategy(),
+                () -> createDistributionKeys(context, network, variantId));
+            NetworkVariantDelta delta = new NetworkVariantDelta();
+            BalancesAdjustmentResult result = runOnComputationPool(() -> computeBalancesAdjustment(context, network, workingVariantId, distributionKeys, delta));
+            if (result.getStatus() == BalanceComputationResult.Status.SUCCESS) {
+                if (Thread.currentThread().isInterrupted() || !context.startFlush()) {
+                    // the run has been cancelled while computing: nothing must be written back to the store
+                    throw new InterruptedException("Balances adjustment on network '" + context.getNetworkUuid() + "' cancelled");
+                }
+                // only the values changed by the run are written to the adjusted variant, so that only them are flushed
+                observer.observeFlushDelta(delta.copy(network, workingVariantId, network, variantId));
+                removeWorkingVariants(network, workingVariantId);
+                networkCache.flush(cachedNetwork);
+            }
+            return result;
+        } finally {
+            removeWorkingVariants(network, workingVariantId);
+        }
+    }
+
+    /**
+     * Balances the merge of the context networks as a single network. The networks are fetched and
+     * flushed in parallel; the computation runs on a merge of in-memory copies, so on success the
+     * injections changed on the merged network are written back to each source (see {@link NetworkVariantDelta}).
+     */
+    private BalanceComputationResult computeMergedBalancesAdjustment(BalancesAdjustmentRunContext context) throws ExecutionException, InterruptedException {
+        checkMergedVariant(context);
+        List<UUID> networkUuids = getNetworkUuids(context);
+        List<ReentrantLock> locks = lockNetworks(networkUuids);
+        // the networks and their merged copies
+        try (BalancesAdjustmentMemoryBudget.Reservation reservation = memoryBudget.reserve(networkUuids, 1)) {
+            return computeMergedBalancesAdjustment(context, networkUuids);
+        } finally {
+            unlockNetworks(locks);
+        }
+    }
+
+    private BalanceComputationResult computeMergedBalancesAdjustment(BalancesAdjustmentRunContext context, List<UUID> networkUuids) throws ExecutionException, InterruptedException {
+        List<NetworkCache.CachedNetwork> cachedNetworks = getNetworks(networkUuids, context.getLoadingMode());
+        // locks are always taken in the same order to avoid deadlocks between runs on overlapping networks
+        List<NetworkCache.CachedNetwork> lockOrder = cachedNetworks.stream()
+                .sorted(Comparator.comparing(NetworkCache.CachedNetwork::getNetworkUuid))
+                .toList();
+        List<NetworkCache.CachedNetwork> lockedNetworks = new ArrayList<>();
+        try {
+            for (NetworkCache.CachedNetwork cachedNetwork : lockOrder) {
+                cachedNetwork.getLock().lockInterruptibly();
+                lockedNetworks.add(cachedNetwork);
+            }
+            return computeMergedBalancesAdjustment(context, cachedNetworks);
+        } catch (RuntimeException e) {
+            // the cached networks may have been left in an unknown state
+            networkUuids.forEach(networkCache::invalidate);
+            throw e;
+        } finally {
+            lockedNetworks.forEach(cachedNetwork -> cachedNetwork.getLock().unlock());
+        }
+    }
+
+    private BalanceComputationResult computeMergedBalancesAdjustment(BalancesAdjustmentRunContext context, List<NetworkCache.CachedNetwork> cachedNetworks) throws ExecutionException, InterruptedException {
+        Network mergedNetwork = mergeCopies(cachedNetworks.stream().map(NetworkCache.CachedNetwork::getNetwork).toList());
+        CountryDistributionKeys distributionKeys = createDistributionKeys(context, mergedNetwork, VariantManagerConstants.INITIAL_VARIANT_ID);
+        NetworkVariantDelta delta = new NetworkVariantDelta();
+        BalancesAdjustmentResult result = runOnComputationPool(() -> computeBalancesAdjustment(context, mergedNetwork, VariantManagerConstants.INITIAL_VARIANT_ID,
+            distributionKeys, delta));
         if (result.getStatus() == BalanceComputationResult.Status.SUCCESS) {
-            listNetworks.forEach(n -> networkStoreService.flush(n));
+            if (Thread.currentThread().isInterrupted() || !context.startFlush()) {
+                throw new InterruptedException("Balances adjustment on network '" + context.getNetworkUuid() + "' cancelled");
+            }
+            cachedNetworks.forEach(cachedNetwork -> observer.observeFlushDelta(delta.copy(
+                mergedNetwork, VariantManagerConstants.INITIAL_VARIANT_ID, cachedNetwork.getNetwork(), VariantManagerConstants.INITIAL_VARIANT_ID)));
+            flushNetworks(cachedNetworks);
         }
         return result;
     }
 
-    private void dispatchNetPositionsInconsistencies(Network network, Map<String, NetworkAreaFactory> networkAreas,
-                                                     Map<String, Double> targetNetPositions) {
-        double initialNetPositionSum = networkAreas.values().stream().mapToDouble(networkArea -> networkArea.create(network).getNetPosition()).sum();
-        double targetNetPositionSum = networkAreas.keySet().stream().mapToDouble(targetNetPositions::get).sum();
+    private static void checkMergedVariant(BalancesAdjustmentRunContext context) {
+        if (!VariantManagerConstants.INITIAL_VARIANT_ID.equals(context.getVariantId())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Merged balances adjustments only support the initial variant");
+        }
+    }
+
+    private static List<UUID> getNetworkUuids(BalancesAdjustmentRunContext context) {
+        List<UUID> networkUuids = new ArrayList<>();
+        networkUuids.add(context.getNetworkUuid());
+        context.getOtherNetworkUuids().stream().filter(networkUuid -> !networkUuids.contains(networkUuid)).forEach(networkUuids::add);
+        return networkUuids;
+    }
+
+    /**
+     * Merges in-memory copies of the given networks, which are left unchanged.
+     */
+    private static Network mergeCopies(List<Network> networks) {
+        return Network.merge(MERGED_NETWORK_ID, networks.stream().map(NetworkSerDe::copy).toArray(Network[]::new));
+    }
+
+    /**
+     * Computes a preview on private copies of the networks, reserved in the memory budget like a run: nothing
+     * can be flushed, and the runs on the same networks are not delayed but while a cached network is copied.
+     */
+    private BalanceComputationResult computePreview(BalancesAdjustmentRunContext context) throws ExecutionException, InterruptedException {
+        List<UUID> networkUuids = getNetworkUuids(context);
+        if (networkUuids.size() > 1) {
+            checkMergedVariant(context);
+        }
+        // the copies, and their merge if any
+        try (BalancesAdjustmentMemoryBudget.Reservation reservation = memoryBudget.reserveCopies(networkUuids, networkUuids.size() > 1 ? 2 : 1)) {
+            return computePreview(context, networkUuids);
+        }
+    }
+
+    private BalanceComputationResult computePreview(BalancesAdjustmentRunContext context, List<UUID> networkUuids) throws ExecutionException, InterruptedException {
+        List<Future<Network>> futures = networkUuids.stream()
+                .map(networkUuid -> networkStoreExecutor.submit(() -> networkCache.loadPrivateCopy(networkUuid, context.getLoadingMode())))
+                .toList();
+        List<Network> networks = new ArrayList<>(futures.size());
+        try {
+            for (Future<Network> future : futures) {
+                networks.add(getUnwrapped(future));
+            }
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        if (networks.size() > 1) {
+            Network mergedNetwork = mergeCopies(networks);
+            CountryDistributionKeys distributionKeys = createDistributionKeys(context, mergedNetwork, VariantManagerConstants.INITIAL_VARIANT_ID);
+            NetworkVariantDelta delta = new NetworkVariantDelta();
+            BalancesAdjustmentResult result = runOnComputationPool(() -> computeBalancesAdjustment(context, mergedNetwork, VariantManagerConstants.INITIAL_VARIANT_ID,
+                distributionKeys, delta));
+            return createPreviewResult(result, delta, mergedNetwork, VariantManagerConstants.INITIAL_VARIANT_ID, networks, VariantManagerConstants.INITIAL_VARIANT_ID);
+        }
+        Network network = networks.get(0);
+        String variantId = context.getVariantId();
+        if (!network.getVariantManager().getVariantIds().contains(variantId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Variant '" + variantId + "' of network '" + context.getNetworkUuid() + "' not found");
+        }
+        String workingVariantId = WORKING_VARIANT_ID_PREFIX + UUID.randomUUID();
+        network.getVariantManager().cloneVariant(variantId, workingVariantId);
+        try {
+            CountryDistributionKeys distributionKeys = createDistributionKeys(context, network, variantId);
+            NetworkVariantDelta delta = new NetworkVariantDelta();
+            BalancesAdjustmentResult result = runOnComputationPool(() -> computeBalancesAdjustment(context, network, workingVariantId, distributionKeys, delta));
+            return createPreviewResult(result, delta, network, workingVariantId, List.of(network), variantId);
+        } finally {
+            removeWorkingVariants(network, workingVariantId);
+        }
+    }
+
+    /**
+     * Compares the variant a run has been computed on to the variant(s) it would have been written to.
+     * Nothing is computed when the run failed, as nothing would have been written.
+     */
+    private static BalanceComputationResult createPreviewResult(BalancesAdjustmentResult result, NetworkVariantDelta delta, Network network,
+                                                                String workingVariantId, List<Network> sources, String sourceVariantId) {
+        if (result.getStatus() != BalanceComputationResult.Status.SUCCESS) {
+            return result;
+        }
+        Map<String, Double> targetPDeltas = new HashMap<>();
+        Map<String, Double> p0Deltas = new HashMap<>();
+        sources.forEach(source -> {
+            delta.addTargetPDeltas(source, sourceVariantId, network, workingVariantId, targetPDeltas);
+            delta.addP0Deltas(source, sourceVariantId, network, workingVariantId, p0Deltas);
+        });
+        network.getVariantManager().setWorkingVariant(workingVariantId);
+        Map<String, Double> finalNetPositions = CountryNetworkAreas.of(network).getInitialNetPositions();
+        return new BalancesAdjustmentPreviewResult(result, targetPDeltas, p0Deltas, finalNetPositions);
+    }
+
+    private List<NetworkCache.CachedNetwork> getNetworks(List<UUID> networkUuids, NetworkLoadingMode loadingMode) throws ExecutionException, InterruptedException {
+        List<Future<NetworkCache.CachedNetwork>> futures = networkUuids.stream()
+                .map(networkUuid -> networkStoreExecutor.submit(() -> networkCache.get(networkUuid, loadingMode)))
+                .toList();
+        List<NetworkCache.CachedNetwork> cachedNetworks = new ArrayList<>(futures.size());
+        try {
+            for (Future<NetworkCache.CachedNetwork> future : futures) {
+                cachedNetworks.add(getUnwrapped(future));
+            }
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return cachedNetworks;
+    }
+
+    private void flushNetworks(List<NetworkCache.CachedNetwork> cachedNetworks) throws ExecutionException, InterruptedException {
+        List<Future<?>> futures = cachedNetworks.stream()
+                .<Future<?>>map(cachedNetwork -> networkStoreExecutor.submit(() -> networkCache.flush(cachedNetwork)))
+                .toList();
+        for (Future<?> future : futures) {
+            getUnwrapped(future);
+        }
+    }
+
+    /**
+     * Runs the CPU bound part of a run on the computation platform threads when runs are executed by virtual
+     * threads, in the calling thread otherwise.
+     */
+    <T> T runOnComputationPool(Callable<T> computation) throws ExecutionException, InterruptedException {
+        if (computationExecutor == null) {
+            try {
+                return computation.call();
+            } catch (ExecutionException | InterruptedException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ExecutionException(e);
+            }
+        }
+        Future<T> future = computationExecutor.submit(computation);
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return getUnwrapped(future);
+                } catch (InterruptedException e) {
+                    // the computation uses the network until it ends: the network must not be released before,
+                    // the interruption being handled afterward like when the computation runs in the calling thread
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    static <T> T getUnwrapped(Future<T> future) throws ExecutionException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // keep HTTP errors raised by the network store access, such as an unknown network
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private static CountryDistributionKeys createDistributionKeys(BalancesAdjustmentRunContext context, Network network, String variantId) {
+        network.getVariantManager().setWorkingVariant(variantId);
+        return CountryDistributionKeys.of(network, context.getScalingStrategy());
+    }
+
+    /**
+     * @param delta completed with the injections changed by the run
+     */
+    private BalancesAdjustmentResult computeBalancesAdjustment(BalancesAdjustmentRunContext context, Network network, String workingVariantId,
+                                                               CountryDistributionKeys distributionKeys, NetworkVariantDelta delta) throws ExecutionException, InterruptedException {
+        network.getVariantManager().setWorkingVariant(workingVariantId);
+
+        Map<String, Double> targetNetPositions = new HashMap<>(context.getTargetNetPositions());
+
+        BalanceComputationFactory balanceComputationFactory = new BalanceComputationFactoryImpl();
+        CountryNetworkAreas networkAreas = CountryNetworkAreas.of(network);
+        BalancesAdjustmentWarmStart warmStart = context.getWarmStart();
+        Map<String, Scalable> scalables = warmStart != null ? warmStart.getScalables(context.getNetworkUuid()) : Map.of();
+        CountryDistributionKeys runDistributionKeys = context.getGlsk() != null ? distributionKeys.withGlsk(network, context.getGlsk()) : distributionKeys;
+        List<BalanceComputationArea> computationAreas = observer.observe(BalancesAdjustmentObserver.Phase.AREAS_CREATION,
+            () -> createBalanceComputationAreas(network, networkAreas, runDistributionKeys, targetNetPositions, context.isCorrectNetPositionsInconsistencies(), scalables));
+        // computed before any change on the network
+        Map<String, Double> initialNetPositions = networkAreas.getInitialNetPositions();
+        List<BalanceComputationArea> runAreas = context.getProgressListener() != null
+            ? BalancesAdjustmentProgress.track(computationAreas, context.getProgressListener())
+            : computationAreas;
+        BalanceComputation balanceComputation = balanceComputationFactory.create(runAreas, loadFlowRunner, computationManager);
+
+        computationAreas.forEach(area -> delta.addKeys(runDistributionKeys.getKeys(COUNTRIES_BY_NAME.get(area.getName()))));
+        observer.observe(BalancesAdjustmentObserver.Phase.PREPROCESSING, () -> preprocess(network, runDistributionKeys, computationAreas, delta));
+        if (warmStart != null) {
+            warmStart.apply(network, context.getParameters().getLoadFlowParameters());
+        }
+
+        // launch the balances adjustment on the working variant, the iterations are run before the future is returned
+        CompletableFuture<BalanceComputationResult> futureResult = observer.observe(BalancesAdjustmentObserver.Phase.BALANCE_COMPUTATION,
+            () -> balanceComputation.run(network, workingVariantId, context.getParameters()));
+        BalanceComputationResult result = futureResult.get();
+        observer.observeRun(result, network.getGeneratorCount(), network.getCountryCount());
+        if (warmStart != null) {
+            if (result.getStatus() == BalanceComputationResult.Status.SUCCESS) {
+                network.getVariantManager().setWorkingVariant(workingVariantId);
+                warmStart.update(context.getNetworkUuid(), network, computationAreas);
+            } else {
+                warmStart.clear();
+            }
+        }
+        return new BalancesAdjustmentResult(result, initialNetPositions);
+    }
+
+    Future<NetworkCache.CachedNetwork> fetchNetwork(UUID networkUuid, NetworkLoadingMode loadingMode) {
+        return networkStoreExecutor.submit(() -> networkCache.get(networkUuid, loadingMode));
+    }
+
+    /**
+     * Runs a balances adjustment on one of the given copies of its network, which must not be flushed.
+     */
+    BalanceComputationResult computeBalancesAdjustmentOnCopy(BalancesAdjustmentRunContext context, BlockingQueue<Network> networkCopies,
+                                                             CountryDistributionKeys distributionKeys) throws ExecutionException, InterruptedException {
+        Network network = networkCopies.take();
+        String workingVariantId = WORKING_VARIANT_ID_PREFIX + UUID.randomUUID();
+        try {
+            network.getVariantManager().cloneVariant(VariantManagerConstants.INITIAL_VARIANT_ID, workingVariantId);
+            return runOnComputationPool(() -> computeBalancesAdjustment(context, network, workingVariantId, distributionKeys, new NetworkVariantDelta()));
+        } finally {
+            removeWorkingVariants(network, workingVariantId);
+            networkCopies.add(network);
+        }
+    }
+
+    private static void removeWorkingVariants(Network network, String workingVariantId) {
+        // the balance computation works on copies of the variant it is given, named after it
+        VariantManager variantManager = network.getVariantManager();
+        variantManager.setWorkingVariant(VariantManagerConstants.INITIAL_VARIANT_ID);
+        variantManager.getVariantIds().stream()
+                .filter(variantId -> variantId.startsWith(workingVariantId))
+                .toList()
+                .forEach(variantManager::removeVariant);
+    }
+
+    void dispatchNetPositionsInconsistencies(CountryNetworkAreas networkAreas, Map<String, Double> targetNetPositions) {
+        Set<String> countryCodes = networkAreas.getFactories().keySet();
+        double initialNetPositionSum = countryCodes.stream().mapToDouble(networkAreas::getInitialNetPosition).sum();
+        double targetNetPositionSum = countryCodes.stream().mapToDouble(targetNetPositions::get).sum();
 
         if (Math.abs(initialNetPositionSum - targetNetPositionSum) < MAXIMUM_NET_POSITION_MISMATCH_BEFORE_REDISPATCH) {
             return;
         }
         LOGGER.warn("Important mismatch between initial total net positions ({}) and targeted ones ({}). a redispatch will occur on each area", initialNetPositionSum, targetNetPositionSum);
 
-        double absTargetNetPositionSum = networkAreas.keySet().stream().mapToDouble(country -> Math.abs(targetNetPositions.get(country))).sum();
-        networkAreas.forEach((countryKey, value) -> {
+        double absTargetNetPositionSum = countryCodes.stream().mapToDouble(country -> Math.abs(targetNetPositions.get(country))).sum();
+        countryCodes.forEach(countryKey -> {
             double initialTarget = targetNetPositions.get(countryKey);
             double mismatch = initialNetPositionSum - targetNetPositionSum;
             double finalTarget = initialTarget + mismatch * Math.abs(initialTarget) / absTargetNetPositionSum;
@@ -131,57 +704,68 @@ public class BalancesAdjustmentService {
         });
     }
 
-    private void completeInputMaps(Network network, Map<String, NetworkAreaFactory> networkAreas,
-                                   Map<String, Double> targetNetPositions) {
-        network.getCountries().forEach(country -> {
-            String countryCode = country.toString();
-            NetworkAreaFactory countryArea = networkAreas.get(countryCode);
-            targetNetPositions.computeIfAbsent(countryCode, s -> countryArea.create(network).getNetPosition());
-        });
+    void completeInputMaps(CountryNetworkAreas networkAreas, Map<String, Double> targetNetPositions) {
+        networkAreas.getFactories().keySet().forEach(countryCode ->
+            targetNetPositions.computeIfAbsent(countryCode, networkAreas::getInitialNetPosition));
     }
 
     public List<BalanceComputationArea> createBalanceComputationAreas(Network network, Map<String, Double> targetNetPositions, boolean correctNetPositionsInconsistencies) {
-        Map<String, NetworkAreaFactory> networkAreas = network.getCountries().stream()
-                .collect(Collectors.toMap(Country::toString, CountryAreaFactory::new));
+        return createBalanceComputationAreas(network, CountryNetworkAreas.of(network), CountryDistributionKeys.of(network, ScalingStrategy.TARGET_P),
+            targetNetPositions, correctNetPositionsInconsistencies, Map.of());
+    }
 
-        completeInputMaps(network, networkAreas, targetNetPositions);
+    /**
+     * Creates the areas of a run, the given scalables (by area name) being reused instead of the ones
+     * of the distribution keys.
+     */
+    List<BalanceComputationArea> createBalanceComputationAreas(Network network, CountryNetworkAreas networkAreas, CountryDistributionKeys distributionKeys,
+                                                               Map<String, Double> targetNetPositions, boolean correctNetPositionsInconsistencies,
+                                                               Map<String, Scalable> scalables) {
+        completeInputMaps(networkAreas, targetNetPositions);
         if (correctNetPositionsInconsistencies) {
-            dispatchNetPositionsInconsistencies(network, networkAreas, targetNetPositions);
+            dispatchNetPositionsInconsistencies(networkAreas, targetNetPositions);
+        }
+
+        return createBalanceComputationAreas(network.getCountries(), networkAreas, distributionKeys, targetNetPositions, scalables, areasPool);
+    }
+
+    /**
+     * Creates the areas of the given countries, in parallel on the given pool if any. Areas are returned in the
+     * countries order whatever the pool, each one being created the same way.
+     */
+    static List<BalanceComputationArea> createBalanceComputationAreas(Collection<Country> countries, CountryNetworkAreas networkAreas,
+                                                                      CountryDistributionKeys distributionKeys, Map<String, Double> targetNetPositions,
+                                                                      Map<String, Scalable> scalables, ForkJoinPool pool) {
+        if (pool == null) {
+            return createBalanceComputationAreas(countries.stream(), networkAreas, distributionKeys, targetNetPositions, scalables);
         }
+        // a parallel stream run from a fork join pool task is split on this pool rather than on the common one
+        return pool.submit(() -> createBalanceComputationAreas(countries.parallelStream(), networkAreas, distributionKeys, targetNetPositions, scalables))
+                .join();
+    }
 
-        return network.getCountries().stream()
-                .map(country -> createBalanceComputationArea(network, country, networkAreas, targetNetPositions))
+    private static List<BalanceComputationArea> createBalanceComputationAreas(Stream<Country> countries, CountryNetworkAreas networkAreas,
+                                                                              CountryDistributionKeys distributionKeys, Map<String, Double> targetNetPositions,
+                                                                              Map<String, Scalable> scalables) {
+        return countries
+                .map(country -> createBalanceComputationArea(country, distributionKeys.getKeys(country), networkAreas.getFactories(), targetNetPositions,
+                    scalables.get(country.getName())))
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
-    private BalanceComputationArea createBalanceComputationArea(Network network, Country country, Map<String, NetworkAreaFactory> networkAreas,
-                                                                Map<String, Double> targetNetPositions) {
+    private static BalanceComputationArea createBalanceComputationArea(Country country, CountryDistributionKeys.DistributionKeys countryKeys,
+                                                                Map<String, NetworkAreaFactory> networkAreas, Map<String, Double> targetNetPositions,
+                                                                Scalable reusedScalable) {
         String countryName = country.getName();
         String countryCode = country.toString();
         NetworkAreaFactory networkArea = networkAreas.get(countryCode);
         Double targetNetPosition = targetNetPositions.get(countryCode);
-        List<Generator> countryGenerators = network.getGeneratorStream()
-                .filter(g -> country.getName().equals(g.getTerminal().getVoltageLevel().getSubstation().flatMap(Substation::getCountry).orElseThrow().getName())).collect(Collectors.toList()); // TODO
-        double countryGeneratorsTotalP = 0d;
-        for (Generator g : countryGenerators) {
-            countryGeneratorsTotalP += g.getTargetP();
-        }
-        List<Double> percentages = new ArrayList<>();
-        List<Scalable> scalables = new ArrayList<>();
-        LOGGER.debug("Size of generators list: {} for country {}", countryGenerators.size(), countryName);
-        for (Generator g : countryGenerators) {
-            double percent;
-            if (countryGeneratorsTotalP != 0) {
-                percent = g.getTargetP() / countryGeneratorsTotalP * 100;
-            } else {
-                percent = 100f / countryGenerators.size();
-            }
-            percentages.add(percent);
-            scalables.add(Scalable.onGenerator(g.getId()));
-            LOGGER.debug("Addition of percentage {} for generator {}", percent, g.getId());
+        LOGGER.debug("Size of injections list: {} for country {}", countryKeys.size(), countryName);
+        if (countryKeys.isEmpty() || targetNetPosition == null) {
+            return null;
         }
-        return !countryGenerators.isEmpty() && targetNetPosition != null ? new BalanceComputationArea(countryName, networkArea, Scalable.proportional(percentages, scalables),
-                targetNetPosition) : null;
+        Scalable scalable = reusedScalable != null ? reusedScalable : countryKeys.createScalable();
+        return new BalanceComputationArea(countryName, networkArea, scalable, targetNetPosition);
     }
 }
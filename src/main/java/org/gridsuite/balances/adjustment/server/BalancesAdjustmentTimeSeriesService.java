@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationParameters;
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationResult;
+import org.gridsuite.balances.adjustment.server.importer.TimestampedTargetNetPositions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Runs consecutive time series steps, each one flushed like a single run and starting from the solution of the
+ * previous one (see {@link BalancesAdjustmentWarmStart}).
+ */
+@Service
+public class BalancesAdjustmentTimeSeriesService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BalancesAdjustmentTimeSeriesService.class);
+
+    private final BalancesAdjustmentService balancesAdjustmentService;
+
+    private final BalancesAdjustmentMemoryBudget memoryBudget;
+
+    public BalancesAdjustmentTimeSeriesService(BalancesAdjustmentService balancesAdjustmentService, BalancesAdjustmentMemoryBudget memoryBudget) {
+        this.balancesAdjustmentService = balancesAdjustmentService;
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * The networks of the series are locked until its end, the network of the next step being fetched while the
+     * current one is computed. Each step result is given to the consumer as soon as it is computed.
+     *
+     * @param loadingMode how the networks are loaded, null for the configured one
+     */
+    public void computeBalancesAdjustmentTimeSeries(UUID networkUuid, BalanceComputationParameters parameters, NetworkLoadingMode loadingMode,
+                                                    List<TimestampedTargetNetPositions> steps,
+                                                    Consumer<BalancesAdjustmentTimeSeriesStepResult> resultConsumer) throws InterruptedException {
+        // owned by the series: the warm start changes its load flow voltage init mode
+        BalanceComputationParameters seriesParameters = parameters != null ? parameters : new BalanceComputationParameters();
+        List<UUID> networkUuids = steps.stream().map(step -> getStepNetworkUuid(step, networkUuid)).distinct().toList();
+        List<ReentrantLock> locks = balancesAdjustmentService.lockNetworks(networkUuids);
+        // the networks of all the steps, a network being fetched while the previous one is computed
+        try (BalancesAdjustmentMemoryBudget.Reservation reservation = memoryBudget.reserve(networkUuids, 0)) {
+            computeBalancesAdjustmentTimeSeriesSteps(networkUuid, seriesParameters, loadingMode, steps, resultConsumer);
+        } finally {
+            BalancesAdjustmentService.unlockNetworks(locks);
+        }
+    }
+
+    private void computeBalancesAdjustmentTimeSeriesSteps(UUID networkUuid, BalanceComputationParameters seriesParameters, NetworkLoadingMode loadingMode,
+                                                          List<TimestampedTargetNetPositions> steps,
+                                                          Consumer<BalancesAdjustmentTimeSeriesStepResult> resultConsumer) throws InterruptedException {
+        BalancesAdjustmentWarmStart warmStart = new BalancesAdjustmentWarmStart();
+        Future<NetworkCache.CachedNetwork> network = null;
+        Future<NetworkCache.CachedNetwork> nextNetwork = null;
+        try {
+            for (int i = 0; i < steps.size(); i++) {
+                TimestampedTargetNetPositions step = steps.get(i);
+                UUID stepNetworkUuid = getStepNetworkUuid(step, networkUuid);
+                if (network == null) {
+                    network = balancesAdjustmentService.fetchNetwork(stepNetworkUuid, loadingMode);
+                }
+                nextNetwork = null;
+                UUID nextNetworkUuid = null;
+                if (i + 1 < steps.size()) {
+                    nextNetworkUuid = getStepNetworkUuid(steps.get(i + 1), networkUuid);
+                    nextNetwork = nextNetworkUuid.equals(stepNetworkUuid) ? network : balancesAdjustmentService.fetchNetwork(nextNetworkUuid, loadingMode);
+                }
+
+                BalancesAdjustmentRunContext context = new BalancesAdjustmentRunContext(stepNetworkUuid, seriesParameters, step.targetNetPositions().toMap())
+                        .setVariantId(step.variantId())
+                        .setLoadingMode(loadingMode)
+                        .setWarmStart(warmStart);
+                BalancesAdjustmentTimeSeriesStepResult stepResult;
+                try {
+                    BalanceComputationResult result = balancesAdjustmentService.computeBalancesAdjustmentWithLock(context, BalancesAdjustmentService.getUnwrapped(network), null);
+                    stepResult = new BalancesAdjustmentTimeSeriesStepResult(step.timestamp(), stepNetworkUuid, context.getVariantId(), result, null);
+                } catch (ExecutionException | RuntimeException e) {
+                    LOGGER.error("Balances adjustment of time series step {} on network {} failed", step.timestamp(), stepNetworkUuid, e);
+                    stepResult = new BalancesAdjustmentTimeSeriesStepResult(step.timestamp(), stepNetworkUuid, context.getVariantId(), null, e.getMessage());
+                    warmStart.clear();
+                    if (stepNetworkUuid.equals(nextNetworkUuid)) {
+                        // the network has been invalidated by the failure, the next step needs a fresh one
+                        nextNetwork = balancesAdjustmentService.fetchNetwork(nextNetworkUuid, loadingMode);
+                    }
+                }
+                resultConsumer.accept(stepResult);
+                network = nextNetwork;
+            }
+        } finally {
+            // a prefetch left pending by an interruption or a failure must not outlive the series and its locks
+            if (network != null) {
+                network.cancel(true);
+            }
+            if (nextNetwork != null) {
+                nextNetwork.cancel(true);
+            }
+        }
+    }
+
+    private static UUID getStepNetworkUuid(TimestampedTargetNetPositions step, UUID networkUuid) {
+        return step.networkUuid() != null ? step.networkUuid() : networkUuid;
+    }
+}
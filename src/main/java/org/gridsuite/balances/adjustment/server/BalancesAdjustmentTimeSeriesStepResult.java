@@ -0,0 +1,18 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationResult;
+
+import java.util.UUID;
+
+/**
+ * Result of a time series step, the error message being set instead of the result when the step failed.
+ */
+public record BalancesAdjustmentTimeSeriesStepResult(String timestamp, UUID networkUuid, String variantId,
+                                                     BalanceComputationResult result, String errorMessage) {
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationArea;
+import com.powsybl.iidm.modification.scalable.Scalable;
+import com.powsybl.iidm.network.Bus;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.loadflow.LoadFlowParameters;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Solution of the last successful run of a series, used to start the next one. Not thread safe, and the
+ * load flow parameters given to {@link #apply} are modified.
+ */
+public final class BalancesAdjustmentWarmStart {
+
+    private UUID networkUuid;
+
+    private final Map<String, Scalable> scalables = new HashMap<>();
+
+    private final Map<String, double[]> busVoltages = new HashMap<>();
+
+    private LoadFlowParameters.VoltageInitMode coldVoltageInitMode;
+
+    /**
+     * Scalables of the previous run by area name, empty if it was not on the given network.
+     */
+    Map<String, Scalable> getScalables(UUID networkUuid) {
+        return Objects.equals(this.networkUuid, networkUuid) ? scalables : Map.of();
+    }
+
+    /**
+     * Initializes the buses of the network working variant with the voltages of the previous run. Load flows
+     * start from these values only if every bus could be initialized, otherwise from the configured init mode.
+     */
+    void apply(Network network, LoadFlowParameters loadFlowParameters) {
+        if (coldVoltageInitMode == null) {
+            coldVoltageInitMode = loadFlowParameters.getVoltageInitMode();
+        }
+        boolean initialized = !busVoltages.isEmpty();
+        for (Bus bus : network.getBusView().getBuses()) {
+            double[] voltage = busVoltages.get(bus.getId());
+            if (voltage != null) {
+                bus.setV(voltage[0]).setAngle(voltage[1]);
+            } else if (Double.isNaN(bus.getV()) || Double.isNaN(bus.getAngle())) {
+                initialized = false;
+            }
+        }
+        loadFlowParameters.setVoltageInitMode(initialized ? LoadFlowParameters.VoltageInitMode.PREVIOUS_VALUES : coldVoltageInitMode);
+    }
+
+    /**
+     * Keeps the solution of a successful run, read on the network working variant.
+     */
+    void update(UUID networkUuid, Network network, List<BalanceComputationArea> areas) {
+        clear();
+        this.networkUuid = networkUuid;
+        areas.forEach(area -> scalables.put(area.getName(), area.getScalable()));
+        for (Bus bus : network.getBusView().getBuses()) {
+            if (!Double.isNaN(bus.getV()) && !Double.isNaN(bus.getAngle())) {
+                busVoltages.put(bus.getId(), new double[] {bus.getV(), bus.getAngle()});
+            }
+        }
+    }
+
+    /**
+     * Forgets the previous solution, e.g. after a failed run: the next run starts from scratch.
+     */
+    void clear() {
+        networkUuid = null;
+        scalables.clear();
+        busVoltages.clear();
+    }
+}
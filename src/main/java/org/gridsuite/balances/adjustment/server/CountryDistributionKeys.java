@@ -0,0 +1,210 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.iidm.modification.scalable.Scalable;
+import com.powsybl.iidm.network.Country;
+import com.powsybl.iidm.network.Generator;
+import com.powsybl.iidm.network.Injection;
+import com.powsybl.iidm.network.Load;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.Substation;
+import org.gridsuite.balances.adjustment.server.importer.Glsk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Distribution keys of the injections of each country of a network, built in a single pass. They can be shared
+ * by concurrent runs while the network state does not change, unlike the scalables built for each run.
+ */
+public final class CountryDistributionKeys {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CountryDistributionKeys.class);
+
+    private static final DistributionKeys EMPTY = new DistributionKeys(new String[0], new boolean[0], new double[0], false, Set.of());
+
+    private final Map<Country, DistributionKeys> keysByCountry;
+
+    private CountryDistributionKeys(Map<Country, DistributionKeys> keysByCountry) {
+        this.keysByCountry = keysByCountry;
+    }
+
+    public static CountryDistributionKeys of(Network network, ScalingStrategy strategy) {
+        Map<Country, Builder> builders = new EnumMap<>(Country.class);
+        for (Generator generator : network.getGenerators()) {
+            getCountry(generator).ifPresent(country ->
+                builders.computeIfAbsent(country, c -> new Builder()).add(generator.getId(), false, strategy.getWeight(generator)));
+        }
+        if (strategy.includesLoads()) {
+            for (Load load : network.getLoads()) {
+                getCountry(load).ifPresent(country ->
+                    builders.computeIfAbsent(country, c -> new Builder()).add(load.getId(), true, strategy.getWeight(load)));
+            }
+        }
+        Map<Country, DistributionKeys> keysByCountry = new EnumMap<>(Country.class);
+        builders.forEach((country, builder) -> keysByCountry.put(country, builder.build(false, true)));
+        return new CountryDistributionKeys(keysByCountry);
+    }
+
+    /**
+     * Keys where the ones of the countries covered by the GLSK are replaced by the GLSK ones. The GLSK
+     * injections which are not generators or loads of the network are ignored, as well as the areas
+     * which are not countries.
+     */
+    public CountryDistributionKeys withGlsk(Network network, Glsk glsk) {
+        Map<Country, DistributionKeys> glskKeysByCountry = new EnumMap<>(Country.class);
+        glskKeysByCountry.putAll(keysByCountry);
+        glsk.getAreas().forEach((area, keys) -> {
+            Optional<Country> country = Arrays.stream(Country.values()).filter(c -> c.name().equals(area)).findFirst();
+            if (country.isEmpty()) {
+                LOGGER.warn("GLSK area {} is not a country, it is ignored", area);
+                return;
+            }
+            Builder builder = new Builder();
+            for (int i = 0; i < keys.size(); i++) {
+                String id = keys.getInjectionId(i);
+                if (network.getGenerator(id) != null) {
+                    builder.add(id, false, keys.getFactor(i));
+                } else if (network.getLoad(id) != null) {
+                    builder.add(id, true, keys.getFactor(i));
+                } else {
+                    LOGGER.debug("GLSK injection {} of area {} not found in the network", id, area);
+                }
+            }
+            glskKeysByCountry.put(country.get(), builder.build(keys.isMeritOrder(), false));
+        });
+        return new CountryDistributionKeys(glskKeysByCountry);
+    }
+
+    public DistributionKeys getKeys(Country country) {
+        return keysByCountry.getOrDefault(country, EMPTY);
+    }
+
+    private static Optional<Country> getCountry(Injection<?> injection) {
+        return injection.getTerminal().getVoltageLevel().getSubstation().flatMap(Substation::getCountry);
+    }
+
+    public static final class DistributionKeys {
+
+        private final String[] ids;
+        private final boolean[] loads;
+        private final double[] percentages;
+        private final boolean meritOrder;
+        // null when the keys cover all the generators of the country
+        private final Set<String> generatorIds;
+        // built on the first scalable creation
+        private volatile List<Scalable> injectionScalables;
+        private volatile List<Double> percentageList;
+
+        private DistributionKeys(String[] ids, boolean[] loads, double[] percentages, boolean meritOrder, Set<String> generatorIds) {
+            this.ids = ids;
+            this.loads = loads;
+            this.percentages = percentages;
+            this.meritOrder = meritOrder;
+            this.generatorIds = generatorIds;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public boolean isEmpty() {
+            return ids.length == 0;
+        }
+
+        public String getId(int index) {
+            return ids[index];
+        }
+
+        public boolean isLoad(int index) {
+            return loads[index];
+        }
+
+        /**
+         * Share of the shift taken by an injection, in percent, meaningless in merit order.
+         */
+        public double getPercentage(int index) {
+            return percentages[index];
+        }
+
+        /**
+         * Whether the injections are shifted one after the other, in their order, instead of proportionally.
+         */
+        public boolean isMeritOrder() {
+            return meritOrder;
+        }
+
+        /**
+         * Whether a generator of the country is shifted by these keys.
+         */
+        public boolean containsGenerator(String generatorId) {
+            return generatorIds == null || generatorIds.contains(generatorId);
+        }
+
+        public Scalable createScalable() {
+            List<Scalable> scalables = injectionScalables;
+            if (scalables == null) {
+                Scalable[] injections = new Scalable[ids.length];
+                Arrays.setAll(injections, i -> loads[i] ? Scalable.onLoad(ids[i]) : Scalable.onGenerator(ids[i]));
+                scalables = List.of(injections);
+                injectionScalables = scalables;
+            }
+            if (meritOrder) {
+                return Scalable.stack(scalables.toArray(Scalable[]::new));
+            }
+            List<Double> percents = percentageList;
+            if (percents == null) {
+                percents = Arrays.stream(percentages).boxed().toList();
+                percentageList = percents;
+            }
+            return Scalable.proportional(percents, scalables);
+        }
+    }
+
+    private static final class Builder {
+
+        private String[] ids = new String[16];
+        private boolean[] loads = new boolean[16];
+        private double[] weights = new double[16];
+        private int size;
+        private double totalWeight;
+
+        void add(String id, boolean load, double weight) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                loads = Arrays.copyOf(loads, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ids[size] = id;
+            loads[size] = load;
+            weights[size] = weight;
+            totalWeight += weight;
+            size++;
+        }
+
+        DistributionKeys build(boolean meritOrder, boolean allGenerators) {
+            double[] percentages = new double[size];
+            Set<String> generatorIds = allGenerators ? null : new HashSet<>();
+            for (int i = 0; i < size; i++) {
+                // evenly distributed when no injection has any weight
+                percentages[i] = totalWeight != 0 ? weights[i] / totalWeight * 100 : 100. / size;
+                if (generatorIds != null && !loads[i]) {
+                    generatorIds.add(ids[i]);
+                }
+            }
+            return new DistributionKeys(Arrays.copyOf(ids, size), Arrays.copyOf(loads, size), percentages, meritOrder, generatorIds);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.balances_adjustment.util.CountryAreaFactory;
+import com.powsybl.balances_adjustment.util.NetworkArea;
+import com.powsybl.balances_adjustment.util.NetworkAreaFactory;
+import com.powsybl.iidm.network.Country;
+import com.powsybl.iidm.network.Network;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Country areas of a network for a single run, keyed by country code, each area and its initial net position
+ * being computed once.
+ */
+public final class CountryNetworkAreas {
+
+    private final Map<String, MemoizedNetworkAreaFactory> factories = new LinkedHashMap<>();
+
+    private final Map<String, Double> initialNetPositions = new LinkedHashMap<>();
+
+    private CountryNetworkAreas(Network network) {
+        for (Country country : network.getCountries()) {
+            factories.put(country.toString(), new MemoizedNetworkAreaFactory(network, new CountryAreaFactory(country)));
+        }
+    }
+
+    public static CountryNetworkAreas of(Network network) {
+        return new CountryNetworkAreas(network);
+    }
+
+    public Map<String, NetworkAreaFactory> getFactories() {
+        return Collections.unmodifiableMap(factories);
+    }
+
+    public double getInitialNetPosition(String countryCode) {
+        return initialNetPositions.computeIfAbsent(countryCode, code -> factories.get(code).getArea().getNetPosition());
+    }
+
+    /**
+     * Initial net positions of all the countries of the network.
+     */
+    public Map<String, Double> getInitialNetPositions() {
+        factories.keySet().forEach(this::getInitialNetPosition);
+        return Collections.unmodifiableMap(initialNetPositions);
+    }
+
+    private static final class MemoizedNetworkAreaFactory implements NetworkAreaFactory {
+
+        private final Network network;
+
+        private final NetworkAreaFactory delegate;
+
+        private NetworkArea area;
+
+        private MemoizedNetworkAreaFactory(Network network, NetworkAreaFactory delegate) {
+            this.network = network;
+            this.delegate = delegate;
+        }
+
+        private synchronized NetworkArea getArea() {
+            if (area == null) {
+                area = delegate.create(network);
+            }
+            return area;
+        }
+
+        @Override
+        public NetworkArea create(Network network) {
+            return network == this.network ? getArea() : delegate.create(network);
+        }
+    }
+}
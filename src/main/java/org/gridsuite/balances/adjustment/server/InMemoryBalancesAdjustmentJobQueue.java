@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Broker local to the instance, for a single instance and for tests.
+ */
+@Component
+@ConditionalOnProperty(name = "balances-adjustment.queue.broker", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryBalancesAdjustmentJobQueue implements BalancesAdjustmentJobQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryBalancesAdjustmentJobQueue.class);
+
+    private final BlockingQueue<String> runs;
+
+    private final int consumerCount;
+
+    private final ExecutorService consumers;
+
+    private final List<Consumer<String>> resultListeners = new CopyOnWriteArrayList<>();
+
+    public InMemoryBalancesAdjustmentJobQueue(@Value("${balances-adjustment.queue.capacity:64}") int capacity,
+                                              @Value("${balances-adjustment.queue.worker-concurrency:2}") int workerConcurrency) {
+        this.runs = new LinkedBlockingQueue<>(capacity);
+        this.consumerCount = workerConcurrency;
+        AtomicInteger consumerThreadCount = new AtomicInteger();
+        this.consumers = Executors.newFixedThreadPool(workerConcurrency,
+            runnable -> new Thread(runnable, "balances-adjustment-queue-consumer-" + consumerThreadCount.incrementAndGet()));
+    }
+
+    @Override
+    public void publishRun(String message) {
+        if (!runs.offer(message)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many queued balances adjustments pending, retry later");
+        }
+    }
+
+    @Override
+    public void removeRun(String message) {
+        runs.remove(message);
+    }
+
+    @Override
+    public void subscribeRuns(Consumer<String> worker) {
+        for (int i = 0; i < consumerCount; i++) {
+            consumers.execute(() -> consume(worker));
+        }
+    }
+
+    @Override
+    public void publishResult(String message) {
+        resultListeners.forEach(listener -> listener.accept(message));
+    }
+
+    @Override
+    public void subscribeResults(Consumer<String> listener) {
+        resultListeners.add(listener);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        consumers.shutdownNow();
+    }
+
+    private void consume(Consumer<String> worker) {
+        while (!Thread.currentThread().isInterrupted()) {
+            String message;
+            try {
+                message = runs.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                worker.accept(message);
+            } catch (BalancesAdjustmentRunRejectedException e) {
+                if (!runs.offer(message)) {
+                    LOGGER.error("Rejected balances adjustment dropped, the queue is full", e);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Queued balances adjustment not processed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.serde.NetworkSerDe;
+import com.powsybl.network.store.client.NetworkStoreService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Size bounded LRU cache of networks preloaded from the network store, entries expiring after a TTL.
+ * A run must hold the network lock while using a cached network, and only modify a variant it cloned.
+ */
+@Component
+public class NetworkCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NetworkCache.class);
+
+    private final NetworkStoreService networkStoreService;
+
+    private final BalancesAdjustmentObserver observer;
+
+    private final BalancesAdjustmentMemoryBudget memoryBudget;
+
+    private final int maxSize;
+
+    private final Duration ttl;
+
+    private final Map<UUID, CachedNetwork> networks;
+
+    private final Map<UUID, Long> versions = new ConcurrentHashMap<>();
+
+    // identifies each load of a network, so that what is computed on a cached network is not reused on another load
+    private final AtomicLong loadCount = new AtomicLong();
+
+    private final NetworkLoadingMode defaultLoadingMode;
+
+    public NetworkCache(NetworkStoreService networkStoreService,
+                        BalancesAdjustmentObserver observer,
+                        BalancesAdjustmentMemoryBudget memoryBudget,
+                        @Value("${balances-adjustment.network-cache.max-size:0}") int maxSize,
+                        @Value("${balances-adjustment.network-cache.ttl:PT10M}") Duration ttl,
+                        @Value("${balances-adjustment.network-store.loading-mode:FULL}") NetworkLoadingMode defaultLoadingMode) {
+        this.networkStoreService = networkStoreService;
+        this.observer = observer;
+        this.memoryBudget = memoryBudget;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.defaultLoadingMode = defaultLoadingMode;
+        this.networks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedNetwork> eldest) {
+                if (size() > NetworkCache.this.maxSize) {
+                    release(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        memoryBudget.setCacheEvictor(this::evictEldest);
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    public CachedNetwork get(UUID networkUuid) {
+        return get(networkUuid, null);
+    }
+
+    /**
+     * @return the cached network, null if it is not cached or no longer valid
+     */
+    public CachedNetwork getIfCached(UUID networkUuid) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        synchronized (networks) {
+            CachedNetwork cachedNetwork = networks.get(networkUuid);
+            return cachedNetwork != null && cachedNetwork.isValid(getVersion(networkUuid), Instant.now().minus(ttl)) ? cachedNetwork : null;
+        }
+    }
+
+    /**
+     * @param loadingMode how the network is loaded if it is not cached, null for the configured one. A cached
+     *                    network is returned whatever the mode it has been loaded with.
+     */
+    public CachedNetwork get(UUID networkUuid, NetworkLoadingMode loadingMode) {
+        if (maxSize > 0) {
+            synchronized (networks) {
+                CachedNetwork cachedNetwork = networks.get(networkUuid);
+                if (cachedNetwork != null && cachedNetwork.isValid(getVersion(networkUuid), Instant.now().minus(ttl))) {
+                    return cachedNetwork;
+                }
+                release(networks.remove(networkUuid));
+            }
+        }
+        long version = getVersion(networkUuid);
+        CachedNetwork loadedNetwork = new CachedNetwork(networkUuid, load(networkUuid, loadingMode != null ? loadingMode : defaultLoadingMode), version,
+            loadCount.incrementAndGet());
+        if (maxSize <= 0) {
+            return loadedNetwork;
+        }
+        synchronized (networks) {
+            // another run may have loaded the same network meanwhile, the first one loaded is kept
+            CachedNetwork cachedNetwork = networks.get(networkUuid);
+            if (cachedNetwork != null && cachedNetwork.isValid(getVersion(networkUuid), Instant.now().minus(ttl))) {
+                return cachedNetwork;
+            }
+            if (version == getVersion(networkUuid)) {
+                release(networks.remove(networkUuid));
+                if (memoryBudget.holdCached(networkUuid)) {
+                    networks.put(networkUuid, loadedNetwork);
+                }
+            }
+            return loadedNetwork;
+        }
+    }
+
+    /**
+     * Copy of a network for the caller only, copied from the cached network if any, loaded from the network
+     * store otherwise: it can be modified without holding any lock, but must not be flushed.
+     *
+     * @param loadingMode how the network is loaded if it is not cached, null for the configured one
+     */
+    public Network loadPrivateCopy(UUID networkUuid, NetworkLoadingMode loadingMode) throws InterruptedException {
+        CachedNetwork cachedNetwork = getIfCached(networkUuid);
+        if (cachedNetwork == null) {
+            return load(networkUuid, loadingMode != null ? loadingMode : defaultLoadingMode);
+        }
+        // copied between two runs, not to copy a state being modified
+        cachedNetwork.getLock().lockInterruptibly();
+        try {
+            return NetworkSerDe.copy(cachedNetwork.getNetwork());
+        } finally {
+            cachedNetwork.getLock().unlock();
+        }
+    }
+
+    public long getVersion(UUID networkUuid) {
+        return versions.getOrDefault(networkUuid, 0L);
+    }
+
+    public void flush(CachedNetwork cachedNetwork) {
+        observer.observe(BalancesAdjustmentObserver.Phase.NETWORK_FLUSH, () -> networkStoreService.flush(cachedNetwork.getNetwork()));
+        // estimated once the run has loaded what it needs, not to load anything else
+        memoryBudget.record(cachedNetwork.getNetworkUuid(), cachedNetwork.getNetwork());
+        // the cached network is the flushed state of the network: it remains valid with the new version,
+        // but not what has been computed on its previous state
+        cachedNetwork.distributionKeys.clear();
+        cachedNetwork.version = versions.merge(cachedNetwork.getNetworkUuid(), 1L, Long::sum);
+    }
+
+    public void invalidate(UUID networkUuid) {
+        versions.merge(networkUuid, 1L, Long::sum);
+        synchronized (networks) {
+            release(networks.remove(networkUuid));
+        }
+        LOGGER.debug("Network {} removed from cache", networkUuid);
+    }
+
+    public void invalidateAll() {
+        synchronized (networks) {
+            networks.keySet().forEach(networkUuid -> versions.merge(networkUuid, 1L, Long::sum));
+            networks.values().forEach(this::release);
+            networks.clear();
+        }
+    }
+
+    /**
+     * Evicts the least recently used network, releasing its memory for the runs. It stays valid for the
+     * runs using it.
+     *
+     * @return false if no network is cached
+     */
+    private boolean evictEldest() {
+        synchronized (networks) {
+            Iterator<CachedNetwork> iterator = networks.values().iterator();
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            release(iterator.next());
+            iterator.remove();
+            return true;
+        }
+    }
+
+    // called with the networks lock held, when a network is no longer cached
+    private void release(CachedNetwork cachedNetwork) {
+        if (cachedNetwork != null) {
+            memoryBudget.releaseCached(cachedNetwork.getNetworkUuid());
+        }
+    }
+
+    private Network load(UUID networkUuid, NetworkLoadingMode loadingMode) {
+        try {
+            Network network = observer.observeNetworkFetch(loadingMode,
+                () -> networkStoreService.getNetwork(networkUuid, loadingMode.getPreloadingStrategy()));
+            // the runs and the cache hold the size of the network rather than the default one from now on
+            memoryBudget.record(networkUuid, network);
+            return network;
+        } catch (PowsyblException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Network '" + networkUuid + "' not found");
+        }
+    }
+
+    public static final class CachedNetwork {
+
+        private final UUID networkUuid;
+
+        private final Network network;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Instant loadDate = Instant.now();
+
+        private final long loadId;
+
+        private volatile long version;
+
+        private final Map<String, CountryDistributionKeys> distributionKeys = new ConcurrentHashMap<>();
+
+        private CachedNetwork(UUID networkUuid, Network network, long version, long loadId) {
+            this.networkUuid = networkUuid;
+            this.network = network;
+            this.version = version;
+            this.loadId = loadId;
+        }
+
+        public UUID getNetworkUuid() {
+            return networkUuid;
+        }
+
+        public Network getNetwork() {
+            return network;
+        }
+
+        public ReentrantLock getLock() {
+            return lock;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return the load of the network this instance holds, different for each network loaded from the network store
+         */
+        public long getLoadId() {
+            return loadId;
+        }
+
+        /**
+         * Distribution keys of a variant of the network, computed only once for each state of the network.
+         * Only the variants written by {@link #flush(CachedNetwork)} are expected to change.
+         */
+        public CountryDistributionKeys getDistributionKeys(String variantId, ScalingStrategy strategy, Supplier<CountryDistributionKeys> keysSupplier) {
+            return distributionKeys.computeIfAbsent(variantId + "/" + strategy, key -> keysSupplier.get());
+        }
+
+        private boolean isValid(long currentVersion, Instant oldestLoadDate) {
+            return version == currentVersion && loadDate.isAfter(oldestLoadDate);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.network.store.client.PreloadingStrategy;
+
+/**
+ * How a network is loaded from the network store. The collections which are not loaded up front are loaded
+ * by the network store client the first time they are used, so the result of a run does not depend on it.
+ */
+public enum NetworkLoadingMode {
+    /**
+     * All the collections of the network are loaded up front.
+     */
+    FULL(PreloadingStrategy.COLLECTION),
+    /**
+     * Only the collections the bus views are built from are loaded up front: the ones the net positions of
+     * the country areas, the scalables and the load flow read. The other ones (e.g. shunts or HVDC lines
+     * when the network has none at the border) are only loaded if used.
+     */
+    BUS_VIEW(PreloadingStrategy.ALL_COLLECTIONS_NEEDED_FOR_BUS_VIEW);
+
+    private final PreloadingStrategy preloadingStrategy;
+
+    NetworkLoadingMode(PreloadingStrategy preloadingStrategy) {
+        this.preloadingStrategy = preloadingStrategy;
+    }
+
+    public PreloadingStrategy getPreloadingStrategy() {
+        return preloadingStrategy;
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.iidm.network.Generator;
+import com.powsybl.iidm.network.Load;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.Terminal;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The injections changed by a balances adjustment, only the values which differ being copied to the variant
+ * which is flushed.
+ */
+final class NetworkVariantDelta {
+
+    private final Set<String> generatorIds = new HashSet<>();
+
+    private final Set<String> loadIds = new HashSet<>();
+
+    void addGenerator(String generatorId) {
+        generatorIds.add(generatorId);
+    }
+
+    void addKeys(CountryDistributionKeys.DistributionKeys keys) {
+        for (int i = 0; i < keys.size(); i++) {
+            (keys.isLoad(i) ? loadIds : generatorIds).add(keys.getId(i));
+        }
+    }
+
+    /**
+     * @return the number of elements changed in the target variant
+     */
+    int copy(Network source, String sourceVariantId, Network target, String targetVariantId) {
+        source.getVariantManager().setWorkingVariant(sourceVariantId);
+        Map<String, double[]> generatorValues = HashMap.newHashMap(generatorIds.size());
+        for (String generatorId : generatorIds) {
+            Generator generator = source.getGenerator(generatorId);
+            if (generator != null) {
+                Terminal terminal = generator.getTerminal();
+                generatorValues.put(generatorId, new double[] {generator.getMinP(), generator.getTargetP(), terminal.getP(), terminal.getQ()});
+            }
+        }
+        Map<String, double[]> loadValues = HashMap.newHashMap(loadIds.size());
+        for (String loadId : loadIds) {
+            Load load = source.getLoad(loadId);
+            if (load != null) {
+                loadValues.put(loadId, new double[] {load.getP0(), load.getTerminal().getP(), load.getTerminal().getQ()});
+            }
+        }
+
+        target.getVariantManager().setWorkingVariant(targetVariantId);
+        int changedElements = 0;
+        for (Map.Entry<String, double[]> entry : generatorValues.entrySet()) {
+            Generator generator = target.getGenerator(entry.getKey());
+            if (generator == null) {
+                continue;
+            }
+            double[] values = entry.getValue();
+            boolean changed = false;
+            // minP first, as it may have been lowered to accept the new targetP
+            if (differs(generator.getMinP(), values[0])) {
+                generator.setMinP(values[0]);
+                changed = true;
+            }
+            if (differs(generator.getTargetP(), values[1])) {
+                generator.setTargetP(values[1]);
+                changed = true;
+            }
+            if (copyPowers(generator.getTerminal(), values[2], values[3]) || changed) {
+                changedElements++;
+            }
+        }
+        for (Map.Entry<String, double[]> entry : loadValues.entrySet()) {
+            Load load = target.getLoad(entry.getKey());
+            if (load == null) {
+                continue;
+            }
+            double[] values = entry.getValue();
+            boolean changed = false;
+            if (differs(load.getP0(), values[0])) {
+                load.setP0(values[0]);
+                changed = true;
+            }
+            if (copyPowers(load.getTerminal(), values[1], values[2]) || changed) {
+                changedElements++;
+            }
+        }
+        return changedElements;
+    }
+
+    /**
+     * Adds to the given map the targetP changes of the generators, from a variant of a network to a variant
+     * of another network (or of the same one), by generator id. Unchanged generators are omitted.
+     */
+    void addTargetPDeltas(Network from, String fromVariantId, Network to, String toVariantId, Map<String, Double> deltas) {
+        Map<String, Double> initialValues = new HashMap<>();
+        from.getVariantManager().setWorkingVariant(fromVariantId);
+        for (String generatorId : generatorIds) {
+            Generator generator = from.getGenerator(generatorId);
+            if (generator != null) {
+                initialValues.put(generatorId, generator.getTargetP());
+            }
+        }
+        to.getVariantManager().setWorkingVariant(toVariantId);
+        initialValues.forEach((generatorId, initialValue) -> addDelta(generatorId, initialValue, to.getGenerator(generatorId).getTargetP(), deltas));
+    }
+
+    /**
+     * Adds to the given map the p0 changes of the loads, the same way as {@link #addTargetPDeltas}.
+     */
+    void addP0Deltas(Network from, String fromVariantId, Network to, String toVariantId, Map<String, Double> deltas) {
+        Map<String, Double> initialValues = new HashMap<>();
+        from.getVariantManager().setWorkingVariant(fromVariantId);
+        for (String loadId : loadIds) {
+            Load load = from.getLoad(loadId);
+            if (load != null) {
+                initialValues.put(loadId, load.getP0());
+            }
+        }
+        to.getVariantManager().setWorkingVariant(toVariantId);
+        initialValues.forEach((loadId, initialValue) -> addDelta(loadId, initialValue, to.getLoad(loadId).getP0(), deltas));
+    }
+
+    private static void addDelta(String id, double initialValue, double newValue, Map<String, Double> deltas) {
+        if (differs(initialValue, newValue)) {
+            deltas.put(id, newValue - initialValue);
+        }
+    }
+
+    private static boolean copyPowers(Terminal terminal, double p, double q) {
+        boolean changed = false;
+        if (differs(terminal.getP(), p)) {
+            terminal.setP(p);
+            changed = true;
+        }
+        if (differs(terminal.getQ(), q)) {
+            terminal.setQ(q);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private static boolean differs(double currentValue, double newValue) {
+        // NaN aware comparison, so that undefined values are not written again
+        return Double.compare(currentValue, newValue) != 0;
+    }
+}
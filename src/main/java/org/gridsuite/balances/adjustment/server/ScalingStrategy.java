@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.iidm.network.Generator;
+import com.powsybl.iidm.network.Load;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * How the injections of a country are shifted to reach its target net position: each injection
+ * takes a share of the shift proportional to its weight.
+ */
+public enum ScalingStrategy {
+    /**
+     * Generators, in proportion of their targetP.
+     */
+    TARGET_P(Generator::getTargetP, null),
+    /**
+     * Generators, in proportion of their maxP.
+     */
+    MAX_P(Generator::getMaxP, null),
+    /**
+     * Generators, in proportion of their upward headroom (maxP - targetP).
+     */
+    HEADROOM(generator -> Math.max(0, generator.getMaxP() - generator.getTargetP()), null),
+    /**
+     * Generators in proportion of their targetP and loads in proportion of their p0.
+     */
+    TARGET_P_AND_LOADS(Generator::getTargetP, load -> Math.abs(load.getP0()));
+
+    private final ToDoubleFunction<Generator> generatorWeight;
+
+    private final ToDoubleFunction<Load> loadWeight;
+
+    ScalingStrategy(ToDoubleFunction<Generator> generatorWeight, ToDoubleFunction<Load> loadWeight) {
+        this.generatorWeight = generatorWeight;
+        this.loadWeight = loadWeight;
+    }
+
+    double getWeight(Generator generator) {
+        return generatorWeight.applyAsDouble(generator);
+    }
+
+    boolean includesLoads() {
+        return loadWeight != null;
+    }
+
+    double getWeight(Load load) {
+        return loadWeight.applyAsDouble(load);
+    }
+}
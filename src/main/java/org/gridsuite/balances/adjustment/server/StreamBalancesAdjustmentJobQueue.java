@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Broker shared by the instances through Spring Cloud Stream, configured by balances-adjustment-stream-queue.properties.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "balances-adjustment.queue.broker", havingValue = "stream")
+@PropertySource("classpath:balances-adjustment-stream-queue.properties")
+public class StreamBalancesAdjustmentJobQueue implements BalancesAdjustmentJobQueue {
+
+    static final String RUN_OUTPUT_BINDING = "publishBalancesAdjustmentRun-out-0";
+    static final String RESULT_OUTPUT_BINDING = "publishBalancesAdjustmentResult-out-0";
+
+    private final StreamBridge streamBridge;
+
+    private volatile Consumer<String> worker;
+
+    private final List<Consumer<String>> resultListeners = new CopyOnWriteArrayList<>();
+
+    public StreamBalancesAdjustmentJobQueue(StreamBridge streamBridge) {
+        this.streamBridge = streamBridge;
+    }
+
+    @Override
+    public void publishRun(String message) {
+        if (!streamBridge.send(RUN_OUTPUT_BINDING, message)) {
+            throw new IllegalStateException("Balances adjustment run not sent to the broker");
+        }
+    }
+
+    @Override
+    public void subscribeRuns(Consumer<String> runWorker) {
+        this.worker = runWorker;
+    }
+
+    @Override
+    public void publishResult(String message) {
+        if (!streamBridge.send(RESULT_OUTPUT_BINDING, message)) {
+            throw new IllegalStateException("Balances adjustment result not sent to the broker");
+        }
+    }
+
+    @Override
+    public void subscribeResults(Consumer<String> listener) {
+        resultListeners.add(listener);
+    }
+
+    @Bean
+    public Consumer<String> consumeBalancesAdjustmentRun() {
+        return message -> {
+            Consumer<String> runWorker = worker;
+            if (runWorker == null) {
+                // rejected, to be delivered to another instance
+                throw new BalancesAdjustmentRunRejectedException("Queued balances adjustments are disabled on this instance");
+            }
+            runWorker.accept(message);
+        };
+    }
+
+    @Bean
+    public Consumer<String> consumeBalancesAdjustmentResult() {
+        return message -> resultListeners.forEach(listener -> listener.accept(message));
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server.importer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Custom generation and load shift keys (GLSK) of areas: for each area, the injections which are shifted
+ * to reach its target net position, either in proportion of their factors or one after the other
+ * (merit order, factors being then ignored).
+ */
+public final class Glsk {
+
+    private final Map<String, Area> areas;
+
+    private Glsk(Map<String, Area> areas) {
+        this.areas = Collections.unmodifiableMap(areas);
+    }
+
+    /**
+     * Keys by area code, in the order the areas have been read.
+     */
+    public Map<String, Area> getAreas() {
+        return areas;
+    }
+
+    public static final class Area {
+
+        private final boolean meritOrder;
+
+        private final String[] injectionIds;
+
+        private final double[] factors;
+
+        private Area(boolean meritOrder, String[] injectionIds, double[] factors) {
+            this.meritOrder = meritOrder;
+            this.injectionIds = injectionIds;
+            this.factors = factors;
+        }
+
+        public boolean isMeritOrder() {
+            return meritOrder;
+        }
+
+        public int size() {
+            return injectionIds.length;
+        }
+
+        public String getInjectionId(int index) {
+            return injectionIds[index];
+        }
+
+        public double getFactor(int index) {
+            return factors[index];
+        }
+    }
+
+    static final class Builder {
+
+        private final Map<String, Area> areas = new LinkedHashMap<>();
+
+        /**
+         * Adds the keys of an area, replacing the previous ones of the same area if any.
+         */
+        Builder add(String area, boolean meritOrder, String[] injectionIds, double[] factors, int size) {
+            areas.put(area, new Area(meritOrder, Arrays.copyOf(injectionIds, size), Arrays.copyOf(factors, size)));
+            return this;
+        }
+
+        Glsk build() {
+            return new Glsk(areas);
+        }
+    }
+}
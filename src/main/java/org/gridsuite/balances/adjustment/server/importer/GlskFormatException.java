@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server.importer;
+
+import com.fasterxml.jackson.core.JsonLocation;
+
+import java.io.IOException;
+
+/**
+ * Invalid GLSK file, either not valid JSON or with a malformed entry.
+ */
+public class GlskFormatException extends IOException {
+
+    private final int line;
+
+    private final int column;
+
+    public GlskFormatException(String message, JsonLocation location) {
+        this(message, location, null);
+    }
+
+    public GlskFormatException(String message, JsonLocation location, Throwable cause) {
+        super(message + " (line " + location.getLineNr() + ", column " + location.getColumnNr() + ")", cause);
+        this.line = location.getLineNr();
+        this.column = location.getColumnNr();
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server.importer;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Streaming reader of custom GLSK files:
+ * <pre>
+ * { "glsk": [ { "area": "FR", "type": "PROPORTIONAL", "injections": [ { "id": "...", "factor": 0.5 } ] } ] }
+ * </pre>
+ */
+public final class GlskImporter {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String PROPORTIONAL = "PROPORTIONAL";
+    private static final String MERIT_ORDER = "MERIT_ORDER";
+
+    private GlskImporter() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    public static Glsk readGlsk(InputStream input) throws IOException {
+        try (JsonParser parser = MAPPER.createParser(input)) {
+            Glsk.Builder builder = new Glsk.Builder();
+            expectStartObject(parser, parser.nextToken(), "a GLSK object");
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if ("glsk".equals(fieldName) && token != JsonToken.VALUE_NULL) {
+                    expect(parser, token, JsonToken.START_ARRAY, "an array of GLSK areas");
+                    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                        readArea(parser, token, builder);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return builder.build();
+        } catch (JsonParseException e) {
+            throw new GlskFormatException(e.getOriginalMessage(), e.getLocation(), e);
+        }
+    }
+
+    private static void readArea(JsonParser parser, JsonToken token, Glsk.Builder builder) throws IOException {
+        JsonLocation location = parser.currentTokenLocation();
+        expectStartObject(parser, token, "a GLSK area");
+        String area = null;
+        boolean meritOrder = false;
+        String[] injectionIds = new String[16];
+        double[] factors = new double[16];
+        int size = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken valueToken = parser.nextToken();
+            switch (fieldName) {
+                case "area" -> {
+                    expect(parser, valueToken, JsonToken.VALUE_STRING, "an area code");
+                    area = parser.getText();
+                }
+                case "type" -> meritOrder = readMeritOrder(parser, valueToken);
+                case "injections" -> {
+                    expect(parser, valueToken, JsonToken.START_ARRAY, "an array of injections");
+                    while ((valueToken = parser.nextToken()) != JsonToken.END_ARRAY) {
+                        if (size == injectionIds.length) {
+                            injectionIds = Arrays.copyOf(injectionIds, size * 2);
+                            factors = Arrays.copyOf(factors, size * 2);
+                        }
+                        readInjection(parser, valueToken, injectionIds, factors, size++);
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (area == null || size == 0) {
+            throw new GlskFormatException("GLSK area without area code or injections", location);
+        }
+        builder.add(area, meritOrder, injectionIds, factors, size);
+    }
+
+    private static boolean readMeritOrder(JsonParser parser, JsonToken token) throws IOException {
+        expect(parser, token, JsonToken.VALUE_STRING, "a GLSK type");
+        return switch (parser.getText()) {
+            case PROPORTIONAL -> false;
+            case MERIT_ORDER -> true;
+            default -> throw new GlskFormatException("Unknown GLSK type '" + parser.getText() + "'", parser.currentTokenLocation());
+        };
+    }
+
+    private static void readInjection(JsonParser parser, JsonToken token, String[] injectionIds, double[] factors, int index) throws IOException {
+        JsonLocation location = parser.currentTokenLocation();
+        expectStartObject(parser, token, "a GLSK injection");
+        String id = null;
+        double factor = 1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken valueToken = parser.nextToken();
+            if ("id".equals(fieldName)) {
+                expect(parser, valueToken, JsonToken.VALUE_STRING, "an injection id");
+                id = parser.getText();
+            } else if ("factor".equals(fieldName)) {
+                if (!valueToken.isNumeric()) {
+                    throw new GlskFormatException("Expected a numeric factor but found " + valueToken, parser.currentTokenLocation());
+                }
+                factor = parser.getDoubleValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (id == null || factor < 0) {
+            throw new GlskFormatException("GLSK injection without id or with a negative factor", location);
+        }
+        injectionIds[index] = id;
+        factors[index] = factor;
+    }
+
+    private static void expectStartObject(JsonParser parser, JsonToken token, String expected) throws IOException {
+        expect(parser, token, JsonToken.START_OBJECT, expected);
+    }
+
+    private static void expect(JsonParser parser, JsonToken token, JsonToken expectedToken, String expected) throws IOException {
+        if (token != expectedToken) {
+            throw new GlskFormatException("Expected " + expected + " but found " + (token != null ? token : "end of input"),
+                parser.currentTokenLocation());
+        }
+    }
+}
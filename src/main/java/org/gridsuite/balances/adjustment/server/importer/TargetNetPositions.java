@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server.importer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Target net positions of areas, stored as parallel arrays of area codes and unboxed net positions,
+ * in the order the areas have been read.
+ */
+public final class TargetNetPositions {
+
+    private final String[] areas;
+
+    private final double[] netPositions;
+
+    private TargetNetPositions(String[] areas, double[] netPositions) {
+        this.areas = areas;
+        this.netPositions = netPositions;
+    }
+
+    public int size() {
+        return areas.length;
+    }
+
+    public String getArea(int index) {
+        return areas[index];
+    }
+
+    public double getNetPosition(int index) {
+        return netPositions[index];
+    }
+
+    /**
+     * Net position of an area, NaN if the area has no target.
+     */
+    public double getNetPosition(String area) {
+        for (int i = 0; i < areas.length; i++) {
+            if (areas[i].equals(area)) {
+                return netPositions[i];
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Mutable copy of the targets, in the order the areas have been read.
+     */
+    public Map<String, Double> toMap() {
+        Map<String, Double> map = LinkedHashMap.newLinkedHashMap(areas.length);
+        for (int i = 0; i < areas.length; i++) {
+            map.put(areas[i], netPositions[i]);
+        }
+        return map;
+    }
+
+    static final class Builder {
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        private String[] areas = new String[16];
+
+        private double[] netPositions = new double[16];
+
+        private int size;
+
+        /**
+         * Adds the target of an area, replacing the previous one of the same area if any.
+         */
+        Builder add(String area, double netPosition) {
+            Integer index = indexes.putIfAbsent(area, size);
+            if (index != null) {
+                netPositions[index] = netPosition;
+                return this;
+            }
+            if (size == areas.length) {
+                areas = Arrays.copyOf(areas, size * 2);
+                netPositions = Arrays.copyOf(netPositions, size * 2);
+            }
+            areas[size] = area;
+            netPositions[size] = netPosition;
+            size++;
+            return this;
+        }
+
+        TargetNetPositions build() {
+            return new TargetNetPositions(Arrays.copyOf(areas, size), Arrays.copyOf(netPositions, size));
+        }
+    }
+}
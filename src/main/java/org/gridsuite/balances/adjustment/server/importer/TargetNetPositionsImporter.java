@@ -6,37 +6,215 @@
  */
 package org.gridsuite.balances.adjustment.server.importer;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
+/**
+ * Streaming reader of target net positions files, or of time series of target net positions:
+ * <pre>
+ * { "timeSeries": [ { "timestamp": "2026-01-01T00:00:00Z", "netPositions": [ { "area": "FR", "netPosition": 100.0 } ] } ] }
+ * </pre>
+ */
 public final class TargetNetPositionsImporter {
 
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String NET_POSITIONS = "netPositions";
+    private static final String TIME_SERIES = "timeSeries";
+
     private TargetNetPositionsImporter() {
         throw new AssertionError("Utility class should not be instantiated");
     }
 
+    /**
+     * Reads the target net positions by area, in the file order.
+     */
     public static Map<String, Double> getTargetNetPositionsAreasFromFile(InputStream input) throws IOException {
+        return readTargetNetPositions(input).toMap();
+    }
+
+    public static TargetNetPositions readTargetNetPositions(InputStream input) throws IOException {
+        try (JsonParser parser = MAPPER.createParser(input)) {
+            TargetNetPositions.Builder builder = new TargetNetPositions.Builder();
+            expectStartObject(parser, parser.nextToken(), "a target net positions object");
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+                if (NET_POSITIONS.equals(fieldName)) {
+                    readNetPositions(parser, builder);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return builder.build();
+        } catch (JsonParseException e) {
+            throw new TargetNetPositionsFormatException(e.getOriginalMessage(), e.getLocation(), e);
+        }
+    }
+
+    /**
+     * Reads the steps of a time series file, in the file order. A file without time series gives a single
+     * step without timestamp.
+     */
+    public static List<TimestampedTargetNetPositions> readTargetNetPositionsTimeSeries(InputStream input) throws IOException {
+        try (JsonParser parser = MAPPER.createParser(input)) {
+            List<TimestampedTargetNetPositions> steps = new ArrayList<>();
+            TargetNetPositions.Builder builder = null;
+            expectStartObject(parser, parser.nextToken(), "a target net positions object");
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if (TIME_SERIES.equals(fieldName) && token != JsonToken.VALUE_NULL) {
+                    expect(parser, token, JsonToken.START_ARRAY, "an array of time series steps");
+                    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                        steps.add(readTimeSeriesStep(parser, token));
+                    }
+                } else if (NET_POSITIONS.equals(fieldName)) {
+                    builder = new TargetNetPositions.Builder();
+                    readNetPositions(parser, builder);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (steps.isEmpty() && builder != null) {
+                steps.add(new TimestampedTargetNetPositions(null, null, null, builder.build()));
+            }
+            return steps;
+        } catch (JsonParseException e) {
+            throw new TargetNetPositionsFormatException(e.getOriginalMessage(), e.getLocation(), e);
+        }
+    }
+
+    /**
+     * Reads a JSON array of scenarios, each one having an id, target net positions written the same
+     * way as in a target net positions file, and an optional flush flag:
+     * <pre>
+     * [ { "id": "...", "flush": false, "netPositions": [ { "area": "FR", "netPosition": 100.0 } ] } ]
+     * </pre>
+     */
+    public static List<TargetNetPositionsScenario> getTargetNetPositionsScenariosFromFile(InputStream input) throws IOException {
+        try (JsonParser parser = MAPPER.createParser(input)) {
+            List<TargetNetPositionsScenario> scenarios = new ArrayList<>();
+            expect(parser, parser.nextToken(), JsonToken.START_ARRAY, "a JSON array of target net positions scenarios");
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                expectStartObject(parser, token, "a target net positions scenario");
+                String id = Integer.toString(scenarios.size());
+                boolean flush = false;
+                TargetNetPositions.Builder builder = new TargetNetPositions.Builder();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String fieldName = parser.currentName();
+                    token = parser.nextToken();
+                    if (token == JsonToken.VALUE_NULL) {
+                        continue;
+                    }
+                    switch (fieldName) {
+                        case "id" -> id = parser.getValueAsString();
+                        case "flush" -> flush = parser.getValueAsBoolean();
+                        case NET_POSITIONS -> readNetPositions(parser, builder);
+                        default -> parser.skipChildren();
+                    }
+                }
+                scenarios.add(new TargetNetPositionsScenario(id, builder.build(), flush));
+            }
+            return scenarios;
+        } catch (JsonParseException e) {
+            throw new TargetNetPositionsFormatException(e.getOriginalMessage(), e.getLocation(), e);
+        }
+    }
+
+    private static TimestampedTargetNetPositions readTimeSeriesStep(JsonParser parser, JsonToken token) throws IOException {
+        JsonLocation location = parser.currentTokenLocation();
+        expectStartObject(parser, token, "a time series step");
+        String timestamp = null;
+        UUID networkUuid = null;
+        String variantId = null;
+        TargetNetPositions.Builder builder = new TargetNetPositions.Builder();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+            switch (fieldName) {
+                case "timestamp" -> timestamp = parser.getValueAsString();
+                case "networkUuid" -> networkUuid = readUuid(parser);
+                case "variantId" -> variantId = parser.getValueAsString();
+                case NET_POSITIONS -> readNetPositions(parser, builder);
+                default -> parser.skipChildren();
+            }
+        }
+        if (timestamp == null) {
+            throw new TargetNetPositionsFormatException("Time series step without timestamp", location);
+        }
+        return new TimestampedTargetNetPositions(timestamp, networkUuid, variantId, builder.build());
+    }
+
+    private static UUID readUuid(JsonParser parser) throws IOException {
+        String value = parser.getValueAsString();
+        if (value == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new TargetNetPositionsFormatException("Invalid network UUID '" + value + "'", parser.currentTokenLocation(), e);
+        }
+    }
 
-        Map<String, Double> netPositionAreas = new HashMap<>();
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode jsonTree = mapper.readTree(input);
-        if (jsonTree.hasNonNull("netPositions")) {
-            JsonNode jsonExchangeData = jsonTree.get("netPositions");
-            for (Iterator<JsonNode> it = jsonExchangeData.elements(); it.hasNext();) {
-                JsonNode areaElement = it.next();
-                if (areaElement.hasNonNull("area") && areaElement.hasNonNull("netPosition")) {
-                    String area = areaElement.get("area").asText();
-                    double netPosition = areaElement.get("netPosition").asDouble();
-                    netPositionAreas.put(area, netPosition);
+    private static void readNetPositions(JsonParser parser, TargetNetPositions.Builder builder) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        expect(parser, parser.currentToken(), JsonToken.START_ARRAY, "an array of net positions");
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            readNetPosition(parser, token, builder);
+        }
+    }
+
+    private static void readNetPosition(JsonParser parser, JsonToken token, TargetNetPositions.Builder builder) throws IOException {
+        JsonLocation location = parser.currentTokenLocation();
+        expectStartObject(parser, token, "a net position entry");
+        String area = null;
+        double netPosition = Double.NaN;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken valueToken = parser.nextToken();
+            if ("area".equals(fieldName)) {
+                expect(parser, valueToken, JsonToken.VALUE_STRING, "an area code");
+                area = parser.getText();
+            } else if ("netPosition".equals(fieldName)) {
+                if (!valueToken.isNumeric()) {
+                    throw new TargetNetPositionsFormatException("Expected a numeric net position but found " + valueToken, parser.currentTokenLocation());
                 }
+                netPosition = parser.getDoubleValue();
+            } else {
+                parser.skipChildren();
             }
         }
-        return netPositionAreas;
+        if (area == null || Double.isNaN(netPosition)) {
+            throw new TargetNetPositionsFormatException("Net position entry without area or net position", location);
+        }
+        // the last target of an area replaces the previous ones
+        builder.add(area, netPosition);
+    }
+
+    private static void expectStartObject(JsonParser parser, JsonToken token, String expected) throws IOException {
+        expect(parser, token, JsonToken.START_OBJECT, expected);
+    }
+
+    private static void expect(JsonParser parser, JsonToken token, JsonToken expectedToken, String expected) throws IOException {
+        if (token != expectedToken) {
+            throw new TargetNetPositionsFormatException("Expected " + expected + " but found " + (token != null ? token : "end of input"),
+                parser.currentTokenLocation());
+        }
     }
 }
@@ -0,0 +1,13 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server.importer;
+
+/**
+ * A named set of target net positions, and whether its adjustment has to be written back to the network store.
+ */
+public record TargetNetPositionsScenario(String id, TargetNetPositions targetNetPositions, boolean flush) {
+}
@@ -0,0 +1,16 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server.importer;
+
+import java.util.UUID;
+
+/**
+ * Target net positions of a time series step, the timestamp being null for a file without time series.
+ * A step may also give the network, or the network variant, on which it applies: null when not given.
+ */
+public record TimestampedTargetNetPositions(String timestamp, UUID networkUuid, String variantId, TargetNetPositions targetNetPositions) {
+}
@@ -0,0 +1,230 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.powsybl.network.store.client.NetworkStoreService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of the run endpoint: the server is started with a {@link NetworkStoreStandIn} holding synthetic
+ * networks, then concurrent clients send PUT /v1/networks/{uuid}/run requests in a closed loop, during a warmup
+ * and then a measurement period. Run with: mvn -Pperf verify
+ * <p>
+ * The network cache is disabled, so that each run fetches and flushes its network through the stand-in.
+ * <p>
+ * The load is configured by system properties (perf.networks, perf.generators, perf.countries, perf.concurrency,
+ * perf.warmup, perf.duration, perf.fetch-latency, perf.flush-latency, perf.seed), the server by the usual
+ * balances-adjustment.* ones. Networks and targets only depend on the seed, so that runs with the same settings
+ * on the same machine can be compared.
+ * <p>
+ * The report (latency percentiles, throughput, heap usage sampled every 100 ms and GC activity during the
+ * measurement) is logged and written to perf.result-file. The clients run in the same JVM as the server, so the
+ * heap usage includes their own, which is small and constant.
+ */
+public final class BalancesAdjustmentLoadTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BalancesAdjustmentLoadTest.class);
+
+    private static final String BOUNDARY = "balances-adjustment-load-test";
+
+    private BalancesAdjustmentLoadTest() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    @Configuration
+    static class NetworkStoreStandInConfiguration {
+
+        @Bean
+        @Primary
+        NetworkStoreService networkStoreStandIn() {
+            return new NetworkStoreStandIn(Duration.parse(System.getProperty("perf.fetch-latency", "PT0.05S")),
+                Duration.parse(System.getProperty("perf.flush-latency", "PT0.05S")));
+        }
+    }
+
+    private record Measure(long latencyNanos, int status) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int networkCount = Integer.getInteger("perf.networks", 4);
+        int generatorCount = Integer.getInteger("perf.generators", 10000);
+        int countryCount = Integer.getInteger("perf.countries", 8);
+        int concurrency = Integer.getInteger("perf.concurrency", 8);
+        Duration warmup = Duration.parse(System.getProperty("perf.warmup", "PT30S"));
+        Duration duration = Duration.parse(System.getProperty("perf.duration", "PT1M"));
+        long seed = Long.getLong("perf.seed", 42);
+        Path resultFile = Path.of(System.getProperty("perf.result-file", "target/perf/balances-adjustment-load-test.json"));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BalancesAdjustmentApplication.class, NetworkStoreStandInConfiguration.class)
+                .properties("server.port=0", "balances-adjustment.network-cache.max-size=0")
+                .run(args)) {
+            NetworkStoreStandIn networkStore = (NetworkStoreStandIn) context.getBean(NetworkStoreService.class);
+            List<UUID> networkUuids = new ArrayList<>();
+            for (int i = 0; i < networkCount; i++) {
+                UUID networkUuid = new UUID(seed, i);
+                networkStore.importNetwork(networkUuid, SyntheticNetworkFactory.createRegulated(generatorCount, countryCount, seed + i));
+                networkUuids.add(networkUuid);
+            }
+            // two sets of targets, used alternately so that each run has to move the network
+            List<byte[]> bodies = List.of(
+                createBody(SyntheticNetworkFactory.createTargetNetPositions(countryCount, seed)),
+                createBody(SyntheticNetworkFactory.createTargetNetPositions(countryCount, seed + 1)));
+            String baseUri = "http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port", Integer.class)
+                + "/" + BalancesAdjustmentApi.API_VERSION + "/networks/";
+
+            HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(concurrency)).build();
+            LOGGER.info("Warmup: {} clients during {}", concurrency, warmup);
+            run(client, baseUri, networkUuids, bodies, concurrency, warmup);
+
+            System.gc();
+            long gcCount = getGcCount();
+            long gcTimeMillis = getGcTimeMillis();
+            AtomicLong maxHeapUsed = new AtomicLong();
+            AtomicLong heapUsedSum = new AtomicLong();
+            AtomicLong heapSamples = new AtomicLong();
+            ScheduledExecutorService heapSampler = Executors.newSingleThreadScheduledExecutor();
+            heapSampler.scheduleAtFixedRate(() -> {
+                long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+                maxHeapUsed.accumulateAndGet(heapUsed, Math::max);
+                heapUsedSum.addAndGet(heapUsed);
+                heapSamples.incrementAndGet();
+            }, 0, 100, TimeUnit.MILLISECONDS);
+            LOGGER.info("Measurement: {} clients during {}", concurrency, duration);
+            long start = System.nanoTime();
+            List<Measure> measures = run(client, baseUri, networkUuids, bodies, concurrency, duration);
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            heapSampler.shutdownNow();
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("networks", networkCount);
+            report.put("generators", generatorCount);
+            report.put("countries", countryCount);
+            report.put("concurrency", concurrency);
+            report.put("duration", duration.toString());
+            report.put("fetchLatency", System.getProperty("perf.fetch-latency", "PT0.05S"));
+            report.put("flushLatency", System.getProperty("perf.flush-latency", "PT0.05S"));
+            report.put("seed", seed);
+            long[] latencies = measures.stream().filter(measure -> measure.status() == 200).mapToLong(Measure::latencyNanos).sorted().toArray();
+            long rejections = measures.stream().filter(measure -> measure.status() == 429).count();
+            report.put("requests", measures.size());
+            report.put("successes", latencies.length);
+            report.put("rejections", rejections);
+            report.put("errors", measures.size() - latencies.length - rejections);
+            report.put("throughputPerSecond", latencies.length / elapsedSeconds);
+            report.put("latencyP50Millis", percentileMillis(latencies, 50));
+            report.put("latencyP95Millis", percentileMillis(latencies, 95));
+            report.put("latencyP99Millis", percentileMillis(latencies, 99));
+            report.put("latencyMaxMillis", percentileMillis(latencies, 100));
+            report.put("heapUsedMaxMegabytes", maxHeapUsed.get() / (1024 * 1024));
+            report.put("heapUsedMeanMegabytes", heapSamples.get() > 0 ? heapUsedSum.get() / heapSamples.get() / (1024 * 1024) : 0);
+            report.put("gcCount", getGcCount() - gcCount);
+            report.put("gcTimeMillis", getGcTimeMillis() - gcTimeMillis);
+
+            String json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(report);
+            Files.createDirectories(resultFile.toAbsolutePath().getParent());
+            Files.writeString(resultFile, json);
+            LOGGER.info("Load test report, written to {}:\n{}", resultFile, json);
+        }
+        // the client executor threads are not daemons
+        System.exit(0);
+    }
+
+    private static List<Measure> run(HttpClient client, String baseUri, List<UUID> networkUuids, List<byte[]> bodies,
+                                     int concurrency, Duration duration) throws Exception {
+        long end = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<List<Measure>>> futures = new ArrayList<>();
+            for (int c = 0; c < concurrency; c++) {
+                int clientIndex = c;
+                futures.add(clients.submit(() -> {
+                    List<Measure> measures = new ArrayList<>();
+                    for (int i = clientIndex; System.nanoTime() < end; i += concurrency) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + networkUuids.get(i % networkUuids.size()) + "/run"))
+                            .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                            .PUT(HttpRequest.BodyPublishers.ofByteArray(bodies.get(i / networkUuids.size() % bodies.size())))
+                            .build();
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (IOException e) {
+                            status = -1;
+                        }
+                        measures.add(new Measure(System.nanoTime() - start, status));
+                    }
+                    return measures;
+                }));
+            }
+            List<Measure> measures = new ArrayList<>();
+            for (Future<List<Measure>> future : futures) {
+                measures.addAll(future.get());
+            }
+            return measures;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private static byte[] createBody(Map<String, Double> targetNetPositions) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"targetNetPositionFile\"; filename=\"targetNetPositions.json\"\r\n"
+            + "Content-Type: application/json\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(SyntheticNetworkFactory.writeTargetNetPositions(targetNetPositions));
+        body.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    private static Double percentileMillis(long[] sortedLatencies, int percentile) {
+        if (sortedLatencies.length == 0) {
+            return null;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1e6;
+    }
+
+    private static long getGcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long getGcTimeMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.balances_adjustment.balance_computation.BalanceComputationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class BalancesAdjustmentJobServiceTest {
+
+    private final CountDownLatch runStarted = new CountDownLatch(1);
+
+    private final CountDownLatch releaseRun = new CountDownLatch(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BalancesAdjustmentJobService jobService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        BalancesAdjustmentService balancesAdjustmentService = mock(BalancesAdjustmentService.class);
+        given(balancesAdjustmentService.computeBalancesAdjustment(any(BalancesAdjustmentRunContext.class))).willAnswer(invocation -> {
+            runStarted.countDown();
+            releaseRun.await();
+            return new BalanceComputationResult(BalanceComputationResult.Status.SUCCESS);
+        });
+        jobService = new BalancesAdjustmentJobService(balancesAdjustmentService,
+            new BalancesAdjustmentObserver(meterRegistry), 1, 1, Duration.ofHours(1), 1, 1, false, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseRun.countDown();
+        jobService.shutdown();
+    }
+
+    private static BalancesAdjustmentRunContext createContext() {
+        return new BalancesAdjustmentRunContext(UUID.randomUUID(), null, Map.of("FR", 100.));
+    }
+
+    @Test
+    void testBackpressure() throws Exception {
+        BalancesAdjustmentJob running = jobService.submit(createContext());
+        assertTrue(runStarted.await(10, TimeUnit.SECONDS));
+        assertEquals(BalancesAdjustmentJobStatus.RUNNING, running.getStatus());
+
+        BalancesAdjustmentJob queued = jobService.submit(createContext());
+        assertEquals(BalancesAdjustmentJobStatus.PENDING, queued.getStatus());
+        assertEquals(1, meterRegistry.get(BalancesAdjustmentJobService.RUNNING_GAUGE_NAME).gauge().value());
+        assertEquals(1, meterRegistry.get(BalancesAdjustmentJobService.PENDING_GAUGE_NAME).gauge().value());
+
+        // worker and queue are full: the next run is rejected
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> jobService.submit(createContext()));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, e.getStatusCode());
+
+        releaseRun.countDown();
+        assertEquals(BalanceComputationResult.Status.SUCCESS, running.getResult().get(10, TimeUnit.SECONDS).getStatus());
+        assertEquals(BalanceComputationResult.Status.SUCCESS, queued.getResult().get(10, TimeUnit.SECONDS).getStatus());
+        assertEquals(BalancesAdjustmentJobStatus.COMPLETED, jobService.getJob(running.getUuid()).getStatus());
+    }
+
+    @Test
+    void testCancel() throws Exception {
+        BalancesAdjustmentJob running = jobService.submit(createContext());
+        assertTrue(runStarted.await(10, TimeUnit.SECONDS));
+        BalancesAdjustmentJob queued = jobService.submit(createContext());
+
+        assertEquals(BalancesAdjustmentJobStatus.CANCELLED, jobService.cancel(queued.getUuid()).getStatus());
+        assertEquals(BalancesAdjustmentJobStatus.CANCELLED, jobService.cancel(running.getUuid()).getStatus());
+        assertThrows(CancellationException.class, () -> running.getResult().get(10, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, () -> queued.getResult().get(10, TimeUnit.SECONDS));
+
+        UUID unknownJobUuid = UUID.randomUUID();
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> jobService.getJob(unknownJobUuid));
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+    }
+
+    @Test
+    void testCancelWhileFlushing() {
+        BalancesAdjustmentRunContext context = createContext();
+        BalancesAdjustmentJob job = new BalancesAdjustmentJob(context, Runnable::run);
+        assertTrue(job.start());
+        // once its network is being written, the job can no longer be cancelled
+        assertTrue(context.startFlush());
+        assertFalse(job.cancel());
+        job.complete(new BalanceComputationResult(BalanceComputationResult.Status.SUCCESS));
+        assertEquals(BalancesAdjustmentJobStatus.COMPLETED, job.getStatus());
+
+        // and a cancelled job is never flushed
+        BalancesAdjustmentRunContext cancelledContext = createContext();
+        BalancesAdjustmentJob cancelledJob = new BalancesAdjustmentJob(cancelledContext, Runnable::run);
+        assertTrue(cancelledJob.start());
+        assertTrue(cancelledJob.cancel());
+        assertFalse(cancelledContext.startFlush());
+    }
+
+    @Test
+    void testPurge() throws Exception {
+        BalancesAdjustmentService balancesAdjustmentService = mock(BalancesAdjustmentService.class);
+        given(balancesAdjustmentService.computeBalancesAdjustment(any(BalancesAdjustmentRunContext.class)))
+            .willReturn(new BalanceComputationResult(BalanceComputationResult.Status.SUCCESS));
+        BalancesAdjustmentJobService purgedJobService = new BalancesAdjustmentJobService(balancesAdjustmentService,
+            new BalancesAdjustmentObserver(new SimpleMeterRegistry()), 1, 1, Duration.ofMillis(50), 1, 1, false, 1);
+        try {
+            BalancesAdjustmentJob job = purgedJobService.submit(createContext());
+            job.getResult().get(10, TimeUnit.SECONDS);
+            // purged once its retention has elapsed, without any other job being submitted
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (System.nanoTime() < deadline && isKnown(purgedJobService, job.getUuid())) {
+                Thread.sleep(10);
+            }
+            assertFalse(isKnown(purgedJobService, job.getUuid()));
+        } finally {
+            purgedJobService.shutdown();
+        }
+    }
+
+    private static boolean isKnown(BalancesAdjustmentJobService jobService, UUID jobUuid) {
+        try {
+            jobService.getJob(jobUuid);
+            return true;
+        } catch (ResponseStatusException e) {
+            return false;
+        }
+    }
+
+    @Test
+    void testVirtualThreads() throws Exception {
+        // each run waits for all the others, as if they were all waiting for the network store at the same time
+        int runCount = 8;
+        CountDownLatch allRunsStarted = new CountDownLatch(runCount);
+        BalancesAdjustmentService balancesAdjustmentService = mock(BalancesAdjustmentService.class);
+        given(balancesAdjustmentService.computeBalancesAdjustment(any(BalancesAdjustmentRunContext.class))).willAnswer(invocation -> {
+            assertTrue(Thread.currentThread().isVirtual());
+            allRunsStarted.countDown();
+            assertTrue(allRunsStarted.await(10, TimeUnit.SECONDS));
+            return new BalanceComputationResult(BalanceComputationResult.Status.SUCCESS);
+        });
+        BalancesAdjustmentJobService virtualJobService = new BalancesAdjustmentJobService(balancesAdjustmentService,
+            new BalancesAdjustmentObserver(new SimpleMeterRegistry()), 1, 1, Duration.ofHours(1), 1, 1, true, runCount);
+        try {
+            List<BalancesAdjustmentJob> jobs = new ArrayList<>();
+            for (int i = 0; i < runCount; i++) {
+                jobs.add(virtualJobService.submit(createContext()));
+            }
+            // many more runs than platform workers are in progress at once
+            for (BalancesAdjustmentJob job : jobs) {
+                assertEquals(BalanceComputationResult.Status.SUCCESS, job.getResult().get(10, TimeUnit.SECONDS).getStatus());
+            }
+        } finally {
+            virtualJobService.shutdown();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.iidm.network.Network;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalancesAdjustmentMemoryBudgetTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final BalancesAdjustmentObserver observer = new BalancesAdjustmentObserver(meterRegistry);
+
+    @Test
+    void testMemoryBudget() throws Exception {
+        BalancesAdjustmentMemoryBudget memoryBudget = new BalancesAdjustmentMemoryBudget(observer,
+            DataSize.ofMegabytes(10).toBytes(), DataSize.ofMegabytes(4), DataSize.ofKilobytes(2), Duration.ofMillis(100));
+        UUID networkUuid = UUID.randomUUID();
+        assertEquals(DataSize.ofMegabytes(10).toBytes(), getGaugeValue(BalancesAdjustmentMemoryBudget.BUDGET_GAUGE_NAME));
+
+        // a network never loaded is estimated at the default size, its copies too
+        try (BalancesAdjustmentMemoryBudget.Reservation reservation = memoryBudget.reserve(List.of(networkUuid), 1)) {
+            assertEquals(DataSize.ofMegabytes(8).toBytes(), getGaugeValue(BalancesAdjustmentMemoryBudget.RESERVED_GAUGE_NAME));
+
+            // not enough memory left: the next run is rejected once the wait timeout has elapsed, the network
+            // it shares with the first run not being counted twice
+            ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> memoryBudget.reserve(List.of(networkUuid), 1));
+            assertEquals(HttpStatus.TOO_MANY_REQUESTS, e.getStatusCode());
+            assertEquals(0, getGaugeValue(BalancesAdjustmentMemoryBudget.WAITING_GAUGE_NAME));
+            try (BalancesAdjustmentMemoryBudget.Reservation sharedNetwork = memoryBudget.reserve(List.of(networkUuid), 0)) {
+                assertEquals(DataSize.ofMegabytes(8).toBytes(), getGaugeValue(BalancesAdjustmentMemoryBudget.RESERVED_GAUGE_NAME));
+            }
+            // released only once, however many times it is closed
+            reservation.close();
+            reservation.close();
+        }
+        assertEquals(0, getGaugeValue(BalancesAdjustmentMemoryBudget.RESERVED_GAUGE_NAME));
+
+        // then from its equipment count when it was last loaded or flushed
+        Network network = readTestNetwork();
+        memoryBudget.record(networkUuid, network);
+        try (BalancesAdjustmentMemoryBudget.Reservation reservation = memoryBudget.reserve(List.of(networkUuid), 0)) {
+            assertEquals(BalancesAdjustmentMemoryBudget.getEquipmentCount(network) * 2048,
+                getGaugeValue(BalancesAdjustmentMemoryBudget.RESERVED_GAUGE_NAME));
+        }
+
+        // a run larger than the whole budget is admitted alone
+        try (BalancesAdjustmentMemoryBudget.Reservation reservation = memoryBudget.reserve(List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()), 1)) {
+            assertEquals(DataSize.ofMegabytes(10).toBytes(), getGaugeValue(BalancesAdjustmentMemoryBudget.RESERVED_GAUGE_NAME));
+        }
+        assertEquals(0, getGaugeValue(BalancesAdjustmentMemoryBudget.RESERVED_GAUGE_NAME));
+    }
+
+    @Test
+    void testCachedNetworks() throws Exception {
+        // room for three networks of the test case
+        long networkSize = BalancesAdjustmentMemoryBudget.getEquipmentCount(readTestNetwork()) * 2048;
+        BalancesAdjustmentMemoryBudget memoryBudget = new BalancesAdjustmentMemoryBudget(observer,
+            3 * networkSize, DataSize.ofBytes(networkSize), DataSize.ofKilobytes(2), Duration.ofMillis(100));
+        NetworkStoreStandIn networkStore = new NetworkStoreStandIn(Duration.ZERO, Duration.ZERO);
+        NetworkCache networkCache = new NetworkCache(networkStore, observer, memoryBudget, 4, Duration.ofMinutes(10), NetworkLoadingMode.FULL);
+        UUID networkUuid1 = UUID.randomUUID();
+        UUID networkUuid2 = UUID.randomUUID();
+        UUID networkUuid3 = UUID.randomUUID();
+        networkStore.importNetwork(networkUuid1, readTestNetwork());
+        networkStore.importNetwork(networkUuid2, readTestNetwork());
+        networkStore.importNetwork(networkUuid3, readTestNetwork());
+
+        // the cached networks hold their footprint, counted once while a run uses them
+        networkCache.get(networkUuid1);
+        networkCache.get(networkUuid2);
+        assertEquals(2 * networkSize, getGaugeValue(BalancesAdjustmentMemoryBudget.RESERVED_GAUGE_NAME));
+        try (BalancesAdjustmentMemoryBudget.Reservation reservation = memoryBudget.reserve(List.of(networkUuid1), 0)) {
+            assertNotNull(networkCache.get(networkUuid1));
+            assertEquals(2 * networkSize, getGaugeValue(BalancesAdjustmentMemoryBudget.RESERVED_GAUGE_NAME));
+        }
+
+        // a private copy of a cached network is copied from it rather than loaded again
+        Network cachedNetwork = networkCache.getIfCached(networkUuid1).getNetwork();
+        cachedNetwork.getGenerator("FFR1AA1 _generator").setTargetP(1234);
+        Network privateCopy = networkCache.loadPrivateCopy(networkUuid1, null);
+        assertNotSame(cachedNetwork, privateCopy);
+        assertEquals(1234, privateCopy.getGenerator("FFR1AA1 _generator").getTargetP(), 1e-6);
+
+        // and are evicted, the least recently used first, when a run needs their memory
+        networkCache.get(networkUuid1);
+        try (BalancesAdjustmentMemoryBudget.Reservation reservation = memoryBudget.reserve(List.of(networkUuid3), 1)) {
+            assertNull(networkCache.getIfCached(networkUuid2));
+            assertNotNull(networkCache.getIfCached(networkUuid1));
+            assertEquals(3 * networkSize, getGaugeValue(BalancesAdjustmentMemoryBudget.RESERVED_GAUGE_NAME));
+
+            // the network loaded by the run is cached without being counted again
+            assertNotNull(networkCache.get(networkUuid3));
+            assertNotNull(networkCache.getIfCached(networkUuid3));
+            assertEquals(3 * networkSize, getGaugeValue(BalancesAdjustmentMemoryBudget.RESERVED_GAUGE_NAME));
+
+            // a network which does not fit in the memory left is loaded but not cached
+            assertNotNull(networkCache.get(networkUuid2));
+            assertNull(networkCache.getIfCached(networkUuid2));
+        }
+        assertEquals(2 * networkSize, getGaugeValue(BalancesAdjustmentMemoryBudget.RESERVED_GAUGE_NAME));
+
+        // the memory of an invalidated network is released
+        networkCache.invalidate(networkUuid1);
+        networkCache.invalidate(networkUuid3);
+        assertEquals(0, getGaugeValue(BalancesAdjustmentMemoryBudget.RESERVED_GAUGE_NAME));
+    }
+
+    private double getGaugeValue(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private Network readTestNetwork() {
+        return Network.read("testCase.xiidm", getClass().getResourceAsStream("/testCase.xiidm"));
+    }
+}
@@ -1,46 +1,103 @@
 package org.gridsuite.balances.adjustment.server;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.powsybl.balances_adjustment.balance_computation.BalanceComputationArea;
 import com.powsybl.balances_adjustment.balance_computation.BalanceComputationParameters;
 import com.powsybl.balances_adjustment.balance_computation.BalanceComputationResult;
 import com.powsybl.balances_adjustment.balance_computation.json_parameters.JsonBalanceComputationParameters;
+import com.powsybl.balances_adjustment.util.CountryAreaFactory;
+import com.powsybl.balances_adjustment.util.NetworkAreaFactory;
 import com.powsybl.iidm.modification.scalable.Scalable;
 import com.powsybl.iidm.modification.scalable.ScalingParameters;
+import com.powsybl.iidm.network.Country;
+import com.powsybl.iidm.network.Generator;
 import com.powsybl.iidm.network.Injection;
+import com.powsybl.iidm.network.Load;
 import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.VariantManagerConstants;
 import com.powsybl.network.store.client.NetworkStoreService;
 import com.powsybl.network.store.client.PreloadingStrategy;
 import com.powsybl.network.store.client.RestClientImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.gridsuite.balances.adjustment.server.importer.Glsk;
+import org.gridsuite.balances.adjustment.server.importer.GlskFormatException;
+import org.gridsuite.balances.adjustment.server.importer.GlskImporter;
+import org.gridsuite.balances.adjustment.server.importer.TargetNetPositions;
+import org.gridsuite.balances.adjustment.server.importer.TargetNetPositionsFormatException;
 import org.gridsuite.balances.adjustment.server.importer.TargetNetPositionsImporter;
+import org.gridsuite.balances.adjustment.server.importer.TargetNetPositionsScenario;
+import org.gridsuite.balances.adjustment.server.importer.TimestampedTargetNetPositions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.util.ResourceUtils;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest(BalancesAdjustmentController.class)
+// the runs are not delayed by the memory budget, tested on its own
+@WebMvcTest(value = BalancesAdjustmentController.class, properties = "balances-adjustment.memory-budget.heap-ratio=0")
 @ContextConfiguration(classes = {BalancesAdjustmentApplication.class})
 class BalancesAdjustmentTest {
 
@@ -52,6 +109,30 @@ class BalancesAdjustmentTest {
     @Autowired
     private BalancesAdjustmentService balancesAdjustmentService;
 
+    @Autowired
+    private BalancesAdjustmentScenariosService balancesAdjustmentScenariosService;
+
+    @Autowired
+    private BalancesAdjustmentTimeSeriesService balancesAdjustmentTimeSeriesService;
+
+    @Autowired
+    private BalancesAdjustmentJobService balancesAdjustmentJobService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NetworkCache networkCache;
+
+    @Autowired
+    private BalancesAdjustmentObserver observer;
+
+    @Autowired
+    private BalancesAdjustmentMemoryBudget memoryBudget;
+
+    @Autowired
+    private BalanceComputationParametersProfiles parametersProfiles;
+
     @MockitoBean
     private NetworkStoreService networkStoreService;
 
@@ -112,6 +193,119 @@ class BalancesAdjustmentTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void testParametersProfiles() throws Exception {
+        UUID testNetworkId = UUID.fromString("7928181c-7977-4592-ba19-88027e4254e4");
+        given(networkStoreService.getNetwork(testNetworkId, PreloadingStrategy.COLLECTION)).willReturn(testNetwork);
+        byte[] parameters = new FileInputStream(ResourceUtils.getFile("classpath:balanceComputationParameters.json")).readAllBytes();
+
+        mvc.perform(MockMvcRequestBuilders.put("/v1/parameters-profiles/{profileId}", "default")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(parameters))
+                .andExpect(status().isOk());
+        MvcResult result = mvc.perform(get("/v1/parameters-profiles"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals("[\"default\"]", result.getResponse().getContentAsString());
+
+        // run referencing the profile
+        MockMultipartFile file = new MockMultipartFile("targetNetPositionFile", "workingTargetNetPositions.json",
+                "text/json", new FileInputStream(ResourceUtils.getFile("classpath:workingTargetNetPositions.json")));
+        MockMultipartHttpServletRequestBuilder builder = MockMvcRequestBuilders.multipart("/v1/networks/{networkUuid}/run", testNetworkId.toString());
+        builder.with(request -> {
+            request.setMethod("PUT");
+            return request;
+        });
+        result = mvc.perform(builder.file(file).param("parametersProfile", "default"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertTrue(result.getResponse().getContentAsString().contains("status\":\"SUCCESS\""));
+        mvc.perform(builder.file(file).param("parametersProfile", "unknown"))
+                .andExpect(status().isNotFound());
+
+        // files with the same content are parsed once, the copy of a profile is not shared
+        assertSame(parametersProfiles.getFromFile(parameters), parametersProfiles.getFromFile(parameters.clone()));
+        assertNotSame(parametersProfiles.get("default"), parametersProfiles.getCopy("default"));
+
+        mvc.perform(delete("/v1/parameters-profiles/{profileId}", "default"))
+                .andExpect(status().isOk());
+        mvc.perform(delete("/v1/parameters-profiles/{profileId}", "default"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testAsynchronousBalancesAdjustmentController() throws Exception {
+        UUID testNetworkId = UUID.fromString("7928181c-7977-4592-ba19-88027e4254e4");
+
+        given(networkStoreService.getNetwork(testNetworkId, PreloadingStrategy.COLLECTION)).willReturn(testNetwork);
+
+        MockMultipartFile file = new MockMultipartFile("targetNetPositionFile", "workingTargetNetPositions.json",
+                "text/json", new FileInputStream(ResourceUtils.getFile("classpath:workingTargetNetPositions.json")));
+
+        MockMultipartHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.multipart("/v1/networks/{networkUuid}/run", testNetworkId.toString());
+        builder.param("async", "true");
+        builder.with(request -> {
+            request.setMethod("PUT");
+            return request;
+        });
+
+        // Check the job UUID is returned right away
+        MvcResult result = mvc.perform(builder.file(file))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn();
+        UUID jobUuid = objectMapper.readValue(result.getResponse().getContentAsString(), UUID.class);
+
+        // Poll the job status until it is finished
+        BalancesAdjustmentJobInfos infos;
+        long deadline = System.currentTimeMillis() + 30_000;
+        do {
+            result = mvc.perform(get("/v1/jobs/{jobUuid}", jobUuid))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            infos = objectMapper.readValue(result.getResponse().getContentAsString(), BalancesAdjustmentJobInfos.class);
+            if (!infos.status().isFinished()) {
+                Thread.sleep(50);
+            }
+        } while (!infos.status().isFinished() && System.currentTimeMillis() < deadline);
+        assertEquals(BalancesAdjustmentJobStatus.COMPLETED, infos.status());
+        assertEquals(testNetworkId, infos.networkUuid());
+
+        result = mvc.perform(get("/v1/jobs/{jobUuid}/result", jobUuid))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn();
+        assertTrue(result.getResponse().getContentAsString().contains("status\":\"SUCCESS\""));
+        assertTrue(result.getResponse().getContentAsString().contains("iterationCount\":2"));
+
+        // The progress of a finished job replays its iterations, then gives its status
+        result = mvc.perform(get("/v1/jobs/{jobUuid}/progress", jobUuid))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(30_000);
+        String progress = result.getResponse().getContentAsString();
+        // an iteration is reported for each load flow of the balance computation, from the net positions it reads
+        assertEquals(2, progress.split("event:iteration").length - 1);
+        assertTrue(progress.contains("\"iteration\":2"));
+        assertTrue(progress.contains("\"mismatches\""));
+        assertTrue(progress.indexOf("event:status") > progress.lastIndexOf("event:iteration"));
+        assertTrue(progress.contains("\"status\":\"COMPLETED\""));
+        mvc.perform(get("/v1/jobs/{jobUuid}/progress", UUID.randomUUID())).andExpect(status().isNotFound());
+
+        // Cancelling a finished job does not change its status
+        result = mvc.perform(delete("/v1/jobs/{jobUuid}", jobUuid))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(BalancesAdjustmentJobStatus.COMPLETED, objectMapper.readValue(result.getResponse().getContentAsString(), BalancesAdjustmentJobInfos.class).status());
+
+        // Unknown jobs
+        UUID unknownJobUuid = UUID.randomUUID();
+        mvc.perform(get("/v1/jobs/{jobUuid}", unknownJobUuid)).andExpect(status().isNotFound());
+        mvc.perform(get("/v1/jobs/{jobUuid}/result", unknownJobUuid)).andExpect(status().isNotFound());
+        mvc.perform(delete("/v1/jobs/{jobUuid}", unknownJobUuid)).andExpect(status().isNotFound());
+    }
+
     @Test
     void testBalancesAdjustmentControllerWithMergingView() throws Exception {
         UUID testNetworkId1 = UUID.fromString("7928181c-7977-4592-ba19-88027e4254e4");
@@ -123,6 +317,11 @@ class BalancesAdjustmentTest {
         given(networkStoreService.getNetwork(testNetworkId1, PreloadingStrategy.COLLECTION)).willReturn(testNetwork);
         given(networkStoreService.getNetwork(testNetworkId2, PreloadingStrategy.COLLECTION)).willReturn(testNetwork2);
         given(networkStoreService.getNetwork(testNetworkId3, PreloadingStrategy.COLLECTION)).willReturn(testNetwork3);
+        // the networks do not share any border: the net positions of the merge are the sums of theirs
+        Map<String, Double> mergedInitialNetPositions = new HashMap<>();
+        for (Network network : List.of(testNetwork, testNetwork2, testNetwork3)) {
+            CountryNetworkAreas.of(network).getInitialNetPositions().forEach((country, netPosition) -> mergedInitialNetPositions.merge(country, netPosition, Double::sum));
+        }
 
         MockMultipartFile file = new MockMultipartFile("targetNetPositionFile", "workingTargetNetPositions.json",
                 "text/json", new FileInputStream(ResourceUtils.getFile("classpath:workingTargetNetPositions.json")));
@@ -145,8 +344,17 @@ class BalancesAdjustmentTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andReturn();
-        assertTrue(result.getResponse().getContentAsString().contains("status\":\"SUCCESS\""));
-        assertTrue(result.getResponse().getContentAsString().contains("iterationCount\":2"));
+        JsonNode mergedResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals("SUCCESS", mergedResult.get("status").asText());
+        assertTrue(mergedResult.get("iterationCount").asInt() >= 1);
+        // the three networks are balanced together, as a single one
+        assertEquals(Set.of("BE", "DE", "FR", "NL"), mergedInitialNetPositions.keySet());
+        mergedInitialNetPositions.forEach((country, netPosition) ->
+            assertEquals(netPosition, mergedResult.get("initialNetPositions").get(country).asDouble(), 1e-3));
+        verify(networkStoreService).flush(testNetwork);
+        verify(networkStoreService).flush(testNetwork2);
+        verify(networkStoreService).flush(testNetwork3);
+        assertNotEquals(1500., testNetwork2.getGenerator("2_BBE1AA1 _generator").getTargetP(), 1e-3);
 
         // Check request is ko when no target net position multipart file is provided
         MockMultipartHttpServletRequestBuilder builderKo =
@@ -173,6 +381,8 @@ class BalancesAdjustmentTest {
         BalanceComputationResult balanceComputationResult = balancesAdjustmentService.computeBalancesAdjustment(testNetworkId, balanceComputationParameters, targetNetPositionsIStream);
         assertEquals(BalanceComputationResult.Status.SUCCESS, balanceComputationResult.getStatus());
         assertEquals(2, balanceComputationResult.getIterationCount());
+        Map<String, Double> initialNetPositions = ((BalancesAdjustmentResult) balanceComputationResult).getInitialNetPositions();
+        assertEquals(Set.of("BE", "DE", "FR", "NL"), initialNetPositions.keySet());
 
         // BELGIUM
         assertEquals(724.8642, testNetwork.getGenerator("BBE1AA1 _generator").getTargetP(), 0.1);
@@ -195,6 +405,495 @@ class BalancesAdjustmentTest {
         assertEquals(3399.0000, testNetwork.getGenerator("NNL3AA1 _generator").getTargetP(), 0.1);
     }
 
+    @Test
+    void testPreviewBalancesAdjustmentComputation() throws Exception {
+        UUID testNetworkId = UUID.fromString("7928181c-7977-4592-ba19-88027e4254e4");
+        given(networkStoreService.getNetwork(testNetworkId, PreloadingStrategy.COLLECTION)).willReturn(testNetwork);
+        double initialTargetP = testNetwork.getGenerator("BBE1AA1 _generator").getTargetP();
+
+        InputStream balanceComputationParametersIStream = new FileInputStream(ResourceUtils.getFile("classpath:balanceComputationParameters.json"));
+        BalanceComputationParameters balanceComputationParameters = JsonBalanceComputationParameters.read(balanceComputationParametersIStream);
+        Map<String, Double> targetNetPositions = TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(
+            new FileInputStream(ResourceUtils.getFile("classpath:workingTargetNetPositions.json")));
+        BalanceComputationResult result = balancesAdjustmentService.computeBalancesAdjustment(
+            new BalancesAdjustmentRunContext(testNetworkId, balanceComputationParameters, targetNetPositions).setPreview(true));
+
+        assertEquals(BalanceComputationResult.Status.SUCCESS, result.getStatus());
+        BalancesAdjustmentPreviewResult previewResult = (BalancesAdjustmentPreviewResult) result;
+        // the network is left untouched
+        verify(networkStoreService, never()).flush(testNetwork);
+        assertEquals(initialTargetP, testNetwork.getGenerator("BBE1AA1 _generator").getTargetP(), 1e-6);
+        assertEquals(List.of(VariantManagerConstants.INITIAL_VARIANT_ID), List.copyOf(testNetwork.getVariantManager().getVariantIds()));
+        // the changes are the ones a flushed run makes
+        assertEquals(724.8642 - initialTargetP, previewResult.getTargetPDeltas().get("BBE1AA1 _generator"), 0.1);
+        assertEquals(Set.of("BE", "DE", "FR", "NL"), previewResult.getFinalNetPositions().keySet());
+
+        // previews do not take the locks of the runs on the same network
+        ReentrantLock[] networkLocks = (ReentrantLock[]) ReflectionTestUtils.getField(balancesAdjustmentService, "networkLocks");
+        Arrays.stream(networkLocks).forEach(ReentrantLock::lock);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertEquals(BalanceComputationResult.Status.SUCCESS, executor.submit(() -> balancesAdjustmentService.computeBalancesAdjustment(
+                new BalancesAdjustmentRunContext(testNetworkId, balanceComputationParameters, targetNetPositions).setPreview(true)))
+                .get(1, TimeUnit.MINUTES).getStatus());
+        } finally {
+            executor.shutdownNow();
+            Arrays.stream(networkLocks).forEach(ReentrantLock::unlock);
+        }
+    }
+
+    @Test
+    void testNetworkVariantDelta() {
+        testNetwork.getVariantManager().cloneVariant(VariantManagerConstants.INITIAL_VARIANT_ID, "working");
+        testNetwork.getVariantManager().setWorkingVariant("working");
+        testNetwork.getGenerator("BBE1AA1 _generator").setTargetP(1000).setMinP(-10);
+        testNetwork.getGenerator("BBE1AA1 _generator").getTerminal().setP(-1000);
+        testNetwork.getGenerator("FFR1AA1 _generator").setTargetP(testNetwork.getGenerator("FFR1AA1 _generator").getTargetP());
+        testNetwork.getGenerator("FFR2AA1 _generator").setTargetP(10);
+        testNetwork.getLine("BBE2AA1  FFR3AA1  1").getTerminal1().setP(123);
+
+        NetworkVariantDelta delta = new NetworkVariantDelta();
+        delta.addGenerator("BBE1AA1 _generator");
+        delta.addGenerator("FFR1AA1 _generator");
+        // only the tracked injections are written, and only the ones which changed are counted
+        assertEquals(1, delta.copy(testNetwork, "working", testNetwork, VariantManagerConstants.INITIAL_VARIANT_ID));
+        assertEquals(1000, testNetwork.getGenerator("BBE1AA1 _generator").getTargetP(), 1e-6);
+        assertEquals(-10, testNetwork.getGenerator("BBE1AA1 _generator").getMinP(), 1e-6);
+        assertEquals(-1000, testNetwork.getGenerator("BBE1AA1 _generator").getTerminal().getP(), 1e-6);
+        assertNotEquals(10, testNetwork.getGenerator("FFR2AA1 _generator").getTargetP(), 1e-6);
+        assertNotEquals(123, testNetwork.getLine("BBE2AA1  FFR3AA1  1").getTerminal1().getP(), 1e-6);
+        assertEquals(0, delta.copy(testNetwork, "working", testNetwork, VariantManagerConstants.INITIAL_VARIANT_ID));
+
+        // the injections of the distribution keys are tracked too
+        delta.addKeys(CountryDistributionKeys.of(testNetwork, ScalingStrategy.TARGET_P).getKeys(Country.FR));
+        assertEquals(1, delta.copy(testNetwork, "working", testNetwork, VariantManagerConstants.INITIAL_VARIANT_ID));
+        assertEquals(10, testNetwork.getGenerator("FFR2AA1 _generator").getTargetP(), 1e-6);
+
+        // elements are matched by id when copying to another network
+        Network otherNetwork = Network.read("testCase.xiidm", getClass().getResourceAsStream("/testCase.xiidm"));
+        assertEquals(2, delta.copy(testNetwork, VariantManagerConstants.INITIAL_VARIANT_ID, otherNetwork, VariantManagerConstants.INITIAL_VARIANT_ID));
+        assertEquals(1000, otherNetwork.getGenerator("BBE1AA1 _generator").getTargetP(), 1e-6);
+        Map<String, Double> targetPDeltas = new HashMap<>();
+        delta.addTargetPDeltas(testNetwork, VariantManagerConstants.INITIAL_VARIANT_ID, otherNetwork, VariantManagerConstants.INITIAL_VARIANT_ID, targetPDeltas);
+        assertTrue(targetPDeltas.isEmpty());
+    }
+
+    @Test
+    void testPreprocessing() {
+        Generator beGenerator = testNetwork.getGenerator("BBE1AA1 _generator");
+        beGenerator.setMinP(2000);
+        beGenerator.getTerminal().setP(-1200);
+        Generator frGenerator = testNetwork.getGenerator("FFR1AA1 _generator");
+        frGenerator.setMinP(2500);
+        frGenerator.getTerminal().setP(Double.NaN);
+        List<BalanceComputationArea> areas = balancesAdjustmentService.createBalanceComputationAreas(testNetwork, new HashMap<>(Map.of("BE", -2000.)), false)
+            .stream()
+            .filter(area -> area.getName().equals(Country.BE.getName()))
+            .toList();
+
+        balancesAdjustmentService.preprocess(testNetwork, CountryDistributionKeys.of(testNetwork, ScalingStrategy.TARGET_P), areas, new NetworkVariantDelta());
+
+        // minP only lowered in the balanced areas, before the compensation
+        assertEquals(1500, beGenerator.getMinP(), 1e-6);
+        assertEquals(1200, beGenerator.getTargetP(), 1e-6);
+        assertEquals(2500, frGenerator.getMinP(), 1e-6);
+        assertEquals(2000, frGenerator.getTargetP(), 1e-6);
+    }
+
+    @Test
+    void testMetrics() throws Exception {
+        UUID testNetworkId = UUID.fromString("7928181c-7977-4592-ba19-88027e4254e4");
+        given(networkStoreService.getNetwork(testNetworkId, PreloadingStrategy.COLLECTION)).willReturn(testNetwork);
+        MeterRegistry meterRegistry = observer.getMeterRegistry();
+        double successfulRuns = meterRegistry.counter(BalancesAdjustmentObserver.RUN_COUNTER_NAME, "status", "SUCCESS").count();
+
+        InputStream targetNetPositionsIStream = new FileInputStream(ResourceUtils.getFile("classpath:workingTargetNetPositions.json"));
+        balancesAdjustmentService.computeBalancesAdjustment(testNetworkId, new BalanceComputationParameters(), targetNetPositionsIStream);
+
+        assertEquals(successfulRuns + 1, meterRegistry.counter(BalancesAdjustmentObserver.RUN_COUNTER_NAME, "status", "SUCCESS").count());
+        for (String phase : List.of("network-fetch", "targets-parsing", "areas-creation", "preprocessing", "balance-computation", "network-flush")) {
+            assertTrue(meterRegistry.get(BalancesAdjustmentObserver.PHASE_TIMER_NAME).tags("phase", phase, "outcome", "success").timer().count() > 0, phase);
+        }
+        assertTrue(meterRegistry.get(BalancesAdjustmentObserver.ITERATIONS_SUMMARY_NAME).summary().count() > 0);
+        assertTrue(meterRegistry.get(BalancesAdjustmentObserver.GENERATORS_SUMMARY_NAME).summary().max() > 0);
+        assertTrue(meterRegistry.get(BalancesAdjustmentObserver.FLUSH_DELTA_SUMMARY_NAME).summary().max() > 0);
+        assertNotNull(meterRegistry.find(BalancesAdjustmentJobService.RUNNING_GAUGE_NAME).gauge());
+        assertTrue(meterRegistry.get(BalancesAdjustmentObserver.NETWORK_FETCH_TIMER_NAME).tags("loading-mode", "FULL").timer().count() > 0);
+
+        // the loading mode of a run is used when the network is not cached, and observed apart
+        networkCache.invalidate(testNetworkId);
+        given(networkStoreService.getNetwork(testNetworkId, PreloadingStrategy.ALL_COLLECTIONS_NEEDED_FOR_BUS_VIEW)).willReturn(testNetwork);
+        Map<String, Double> targetNetPositions = TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(
+            new FileInputStream(ResourceUtils.getFile("classpath:workingTargetNetPositions.json")));
+        balancesAdjustmentService.computeBalancesAdjustment(new BalancesAdjustmentRunContext(testNetworkId, null, targetNetPositions)
+            .setLoadingMode(NetworkLoadingMode.BUS_VIEW));
+        verify(networkStoreService).getNetwork(testNetworkId, PreloadingStrategy.ALL_COLLECTIONS_NEEDED_FOR_BUS_VIEW);
+        assertEquals(1, meterRegistry.get(BalancesAdjustmentObserver.NETWORK_FETCH_TIMER_NAME).tags("loading-mode", "BUS_VIEW").timer().count());
+    }
+
+    @Test
+    void testBalancesAdjustmentTimeSeries() throws Exception {
+        UUID testNetworkId = UUID.fromString("7928181c-7977-4592-ba19-88027e4254e4");
+        testNetwork.getVariantManager().cloneVariant(VariantManagerConstants.INITIAL_VARIANT_ID, "v1");
+        given(networkStoreService.getNetwork(testNetworkId, PreloadingStrategy.COLLECTION)).willReturn(testNetwork);
+
+        String netPositions = "[ { \"area\": \"BE\", \"netPosition\": -2117.3 }, { \"area\": \"DE\", \"netPosition\": -4503.5 },"
+            + " { \"area\": \"FR\", \"netPosition\": 5002.7 }, { \"area\": \"NL\", \"netPosition\": 1618.2 } ]";
+        String timeSeries = "{ \"timeSeries\": ["
+            + " { \"timestamp\": \"t0\", \"netPositions\": " + netPositions + " },"
+            + " { \"timestamp\": \"t1\", \"variantId\": \"v1\", \"netPositions\": " + netPositions + " },"
+            + " { \"timestamp\": \"t2\", \"variantId\": \"unknown\", \"netPositions\": " + netPositions + " } ] }";
+        List<TimestampedTargetNetPositions> steps = TargetNetPositionsImporter.readTargetNetPositionsTimeSeries(toStream(timeSeries));
+
+        List<BalancesAdjustmentTimeSeriesStepResult> results = new ArrayList<>();
+        balancesAdjustmentTimeSeriesService.computeBalancesAdjustmentTimeSeries(testNetworkId, null, null, steps, results::add);
+
+        // results are given in the steps order, a failing step does not stop the series
+        assertEquals(List.of("t0", "t1", "t2"), results.stream().map(BalancesAdjustmentTimeSeriesStepResult::timestamp).toList());
+        assertEquals(BalanceComputationResult.Status.SUCCESS, results.get(0).result().getStatus());
+        assertEquals(BalanceComputationResult.Status.SUCCESS, results.get(1).result().getStatus());
+        assertEquals("v1", results.get(1).variantId());
+        assertNotNull(results.get(2).errorMessage());
+        verify(networkStoreService, times(2)).flush(testNetwork);
+
+        // the second step, warm started from the first one with the same distribution keys, reaches the same solution
+        testNetwork.getVariantManager().setWorkingVariant("v1");
+        double adjustedTargetP = testNetwork.getGenerator("BBE1AA1 _generator").getTargetP();
+        testNetwork.getVariantManager().setWorkingVariant(VariantManagerConstants.INITIAL_VARIANT_ID);
+        assertEquals(testNetwork.getGenerator("BBE1AA1 _generator").getTargetP(), adjustedTargetP, 1);
+        assertNotEquals(1500, adjustedTargetP, 1);
+    }
+
+    @Test
+    void testNetworkCache() throws Exception {
+        UUID testNetworkId = UUID.fromString("7928181c-7977-4592-ba19-88027e4254e4");
+
+        given(networkStoreService.getNetwork(testNetworkId, PreloadingStrategy.COLLECTION)).willReturn(testNetwork);
+
+        InputStream balanceComputationParametersIStream = new FileInputStream(ResourceUtils.getFile("classpath:balanceComputationParameters.json"));
+        BalanceComputationParameters balanceComputationParameters = JsonBalanceComputationParameters.read(balanceComputationParametersIStream);
+
+        // the cache is disabled by default
+        NetworkCache enabledNetworkCache = new NetworkCache(networkStoreService, observer, memoryBudget, 4, Duration.ofMinutes(10), NetworkLoadingMode.FULL);
+        ReflectionTestUtils.setField(balancesAdjustmentService, "networkCache", enabledNetworkCache);
+        try {
+            BalanceComputationResult balanceComputationResult = balancesAdjustmentService.computeBalancesAdjustment(testNetworkId, balanceComputationParameters,
+                    new FileInputStream(ResourceUtils.getFile("classpath:failingTargetNetPositions.json")), false);
+            assertEquals(BalanceComputationResult.Status.FAILED, balanceComputationResult.getStatus());
+            long version = enabledNetworkCache.getVersion(testNetworkId);
+
+            // failed run: the initial variant is left unchanged, nothing is flushed
+            assertEquals(List.of(VariantManagerConstants.INITIAL_VARIANT_ID), List.copyOf(testNetwork.getVariantManager().getVariantIds()));
+            assertEquals(1500, testNetwork.getGenerator("BBE1AA1 _generator").getTargetP(), 0.1);
+            verify(networkStoreService, never()).flush(testNetwork);
+
+            // second run reuses the cached network
+            balanceComputationResult = balancesAdjustmentService.computeBalancesAdjustment(testNetworkId, balanceComputationParameters,
+                    new FileInputStream(ResourceUtils.getFile("classpath:workingTargetNetPositions.json")));
+            assertEquals(BalanceComputationResult.Status.SUCCESS, balanceComputationResult.getStatus());
+            verify(networkStoreService, times(1)).getNetwork(testNetworkId, PreloadingStrategy.COLLECTION);
+            verify(networkStoreService, times(1)).flush(testNetwork);
+            assertEquals(List.of(VariantManagerConstants.INITIAL_VARIANT_ID), List.copyOf(testNetwork.getVariantManager().getVariantIds()));
+            assertEquals(724.8642, testNetwork.getGenerator("BBE1AA1 _generator").getTargetP(), 0.1);
+            assertEquals(version + 1, enabledNetworkCache.getVersion(testNetworkId));
+
+            // distribution keys are computed once per flushed state of the network
+            NetworkCache.CachedNetwork cachedNetwork = enabledNetworkCache.get(testNetworkId);
+            CountryDistributionKeys keys = cachedNetwork.getDistributionKeys(VariantManagerConstants.INITIAL_VARIANT_ID, ScalingStrategy.TARGET_P,
+                () -> CountryDistributionKeys.of(testNetwork, ScalingStrategy.TARGET_P));
+            assertSame(keys, cachedNetwork.getDistributionKeys(VariantManagerConstants.INITIAL_VARIANT_ID, ScalingStrategy.TARGET_P, () -> null));
+            enabledNetworkCache.flush(cachedNetwork);
+            assertNotSame(keys, cachedNetwork.getDistributionKeys(VariantManagerConstants.INITIAL_VARIANT_ID, ScalingStrategy.TARGET_P,
+                () -> CountryDistributionKeys.of(testNetwork, ScalingStrategy.TARGET_P)));
+
+            // a network modified by another service is loaded again
+            mvc.perform(delete("/v1/networks/{networkUuid}/cache", testNetworkId))
+                    .andExpect(status().isOk());
+            assertEquals(version + 3, enabledNetworkCache.getVersion(testNetworkId));
+            enabledNetworkCache.get(testNetworkId);
+            verify(networkStoreService, times(2)).getNetwork(testNetworkId, PreloadingStrategy.COLLECTION);
+        } finally {
+            ReflectionTestUtils.setField(balancesAdjustmentService, "networkCache", networkCache);
+        }
+    }
+
+    @Test
+    void testResultCache() throws Exception {
+        UUID testNetworkId = UUID.fromString("7928181c-7977-4592-ba19-88027e4254e4");
+
+        given(networkStoreService.getNetwork(testNetworkId, PreloadingStrategy.COLLECTION)).willReturn(testNetwork);
+
+        Map<String, Double> targetNetPositions = TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(
+            new FileInputStream(ResourceUtils.getFile("classpath:workingTargetNetPositions.json")));
+        BalancesAdjustmentResultCache resultCache = new BalancesAdjustmentResultCache(16, Duration.ofMinutes(10));
+        Object defaultResultCache = ReflectionTestUtils.getField(balancesAdjustmentService, "resultCache");
+        ReflectionTestUtils.setField(balancesAdjustmentService, "resultCache", resultCache);
+        // results are only kept with the cached networks
+        ReflectionTestUtils.setField(balancesAdjustmentService, "networkCache",
+            new NetworkCache(networkStoreService, observer, memoryBudget, 4, Duration.ofMinutes(10), NetworkLoadingMode.FULL));
+        try {
+            BalanceComputationResult result = balancesAdjustmentService.computeBalancesAdjustment(
+                new BalancesAdjustmentRunContext(testNetworkId, null, targetNetPositions));
+            assertEquals(BalanceComputationResult.Status.SUCCESS, result.getStatus());
+            verify(networkStoreService, times(1)).flush(testNetwork);
+
+            // a retry after the flush, with the targets in another order, returns the same result without adjusting the network again
+            Map<String, Double> reorderedTargetNetPositions = new LinkedHashMap<>();
+            new ArrayList<>(targetNetPositions.keySet()).reversed().forEach(area -> reorderedTargetNetPositions.put(area, targetNetPositions.get(area)));
+            assertSame(result, balancesAdjustmentService.computeBalancesAdjustment(
+                new BalancesAdjustmentRunContext(testNetworkId, null, reorderedTargetNetPositions)));
+            verify(networkStoreService, times(1)).flush(testNetwork);
+
+            // other inputs, or parameters of unknown content, are computed
+            assertNotNull(resultCache.getRequestKey(new BalancesAdjustmentRunContext(testNetworkId, null, targetNetPositions)));
+            assertNotEquals(resultCache.getRequestKey(new BalancesAdjustmentRunContext(testNetworkId, null, targetNetPositions)),
+                resultCache.getRequestKey(new BalancesAdjustmentRunContext(testNetworkId, null, targetNetPositions).setScalingStrategy(ScalingStrategy.MAX_P)));
+            assertNull(resultCache.getRequestKey(new BalancesAdjustmentRunContext(testNetworkId, new BalanceComputationParameters(), targetNetPositions)));
+
+            // a network modified by another service is loaded and computed again
+            mvc.perform(delete("/v1/networks/{networkUuid}/cache", testNetworkId))
+                    .andExpect(status().isOk());
+            assertNotSame(result, balancesAdjustmentService.computeBalancesAdjustment(
+                new BalancesAdjustmentRunContext(testNetworkId, null, targetNetPositions)));
+            verify(networkStoreService, times(2)).getNetwork(testNetworkId, PreloadingStrategy.COLLECTION);
+            verify(networkStoreService, times(2)).flush(testNetwork);
+        } finally {
+            ReflectionTestUtils.setField(balancesAdjustmentService, "resultCache", defaultResultCache);
+            ReflectionTestUtils.setField(balancesAdjustmentService, "networkCache", networkCache);
+        }
+    }
+
+    @Test
+    void testProgress() throws Exception {
+        UUID testNetworkId = UUID.fromString("7928181c-7977-4592-ba19-88027e4254e4");
+        given(networkStoreService.getNetwork(testNetworkId, PreloadingStrategy.COLLECTION)).willReturn(testNetwork);
+
+        Map<String, Double> targetNetPositions = TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(
+            new FileInputStream(ResourceUtils.getFile("classpath:workingTargetNetPositions.json")));
+        List<BalancesAdjustmentIteration> iterations = new CopyOnWriteArrayList<>();
+        BalancesAdjustmentRunContext context = new BalancesAdjustmentRunContext(testNetworkId, null, targetNetPositions)
+            .setProgressListener(iterations::add);
+        BalanceComputationResult result = balancesAdjustmentService.computeBalancesAdjustment(context);
+
+        // pins the order in which the balance computation reads the net positions: all the areas once per iteration
+        assertEquals(BalanceComputationResult.Status.SUCCESS, result.getStatus());
+        assertEquals(result.getIterationCount(), iterations.size());
+        for (int i = 0; i < iterations.size(); i++) {
+            assertEquals(i + 1, iterations.get(i).iteration());
+            assertEquals(targetNetPositions.keySet(), iterations.get(i).netPositions().keySet());
+        }
+        double threshold = context.getParameters().getThresholdNetPosition();
+        iterations.getLast().mismatches().values().forEach(mismatch -> assertTrue(Math.abs(mismatch) <= threshold));
+    }
+
+    @Test
+    void testRequestCoalescing() throws Exception {
+        UUID testNetworkId = UUID.fromString("7928181c-7977-4592-ba19-88027e4254e4");
+
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch fetched = new CountDownLatch(1);
+        given(networkStoreService.getNetwork(testNetworkId, PreloadingStrategy.COLLECTION)).willAnswer(invocation -> {
+            fetching.countDown();
+            fetched.await();
+            return testNetwork;
+        });
+
+        Map<String, Double> targetNetPositions = TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(
+            new FileInputStream(ResourceUtils.getFile("classpath:workingTargetNetPositions.json")));
+        AtomicReference<BalanceComputationResult> followerResult = new AtomicReference<>();
+        List<BalancesAdjustmentIteration> followerIterations = new CopyOnWriteArrayList<>();
+        Thread follower = new Thread(() -> {
+            try {
+                followerResult.set(balancesAdjustmentService.computeBalancesAdjustment(new BalancesAdjustmentRunContext(testNetworkId, null, targetNetPositions)
+                    .setProgressListener(followerIterations::add)));
+            } catch (ExecutionException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<BalanceComputationResult> leaderResult = executor.submit(() ->
+                balancesAdjustmentService.computeBalancesAdjustment(new BalancesAdjustmentRunContext(testNetworkId, null, targetNetPositions)));
+            fetching.await();
+            // the identical request waits for the one in progress
+            follower.start();
+            while (follower.getState() != Thread.State.WAITING) {
+                Thread.onSpinWait();
+            }
+            fetched.countDown();
+            follower.join();
+
+            assertEquals(BalanceComputationResult.Status.SUCCESS, leaderResult.get().getStatus());
+            assertSame(leaderResult.get(), followerResult.get());
+            // the follower is notified of the iterations of the shared run
+            assertEquals(leaderResult.get().getIterationCount(), followerIterations.size());
+            verify(networkStoreService, times(1)).getNetwork(testNetworkId, PreloadingStrategy.COLLECTION);
+            verify(networkStoreService, times(1)).flush(testNetwork);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testQueuedBalancesAdjustment() throws Exception {
+        UUID testNetworkId = UUID.fromString("7928181c-7977-4592-ba19-88027e4254e4");
+
+        given(networkStoreService.getNetwork(testNetworkId, PreloadingStrategy.COLLECTION)).willReturn(testNetwork);
+
+        MockMultipartFile file = new MockMultipartFile("targetNetPositionFile", "workingTargetNetPositions.json",
+                "text/json", new FileInputStream(ResourceUtils.getFile("classpath:workingTargetNetPositions.json")));
+        MockMultipartHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.multipart("/v1/networks/{networkUuid}/run", testNetworkId.toString());
+        builder.with(request -> {
+            request.setMethod("PUT");
+            return request;
+        });
+
+        // the queue is disabled by default
+        mvc.perform(builder.file(file).param("queued", "true"))
+                .andExpect(status().isBadRequest());
+
+        Map<String, Double> targetNetPositions = TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(
+            new FileInputStream(ResourceUtils.getFile("classpath:workingTargetNetPositions.json")));
+        InMemoryBalancesAdjustmentJobQueue queue = new InMemoryBalancesAdjustmentJobQueue(1, 2);
+        BalancesAdjustmentQueueService queueService = new BalancesAdjustmentQueueService(balancesAdjustmentJobService,
+            queue, objectMapper, parametersProfiles, true, Duration.ofMinutes(1), 3, Duration.ofMillis(10));
+        queueService.init();
+        try {
+            JsonNode result = queueService.submit(new BalancesAdjustmentRunContext(testNetworkId, new BalanceComputationParameters(), targetNetPositions))
+                .get(1, TimeUnit.MINUTES);
+            assertEquals("SUCCESS", result.get("status").asText());
+            assertEquals(2, result.get("iterationCount").asInt());
+            verify(networkStoreService, times(1)).flush(testNetwork);
+
+            // the errors of the workers are returned to the publisher
+            ExecutionException e = assertThrows(ExecutionException.class, () -> queueService.submit(
+                new BalancesAdjustmentRunContext(testNetworkId, null, targetNetPositions).setVariantId("unknown")).get(1, TimeUnit.MINUTES));
+            assertEquals(HttpStatus.NOT_FOUND, ((ResponseStatusException) e.getCause()).getStatusCode());
+
+            // GLSK files are not carried by the queue
+            BalancesAdjustmentRunContext glskContext = new BalancesAdjustmentRunContext(testNetworkId, null, targetNetPositions)
+                .setGlsk(GlskImporter.readGlsk(toStream("{ \"glsk\": [ { \"area\": \"BE\", \"injections\": [ { \"id\": \"BBE1AA1 _generator\" } ] } ] }")));
+            assertEquals(HttpStatus.BAD_REQUEST, assertThrows(ResponseStatusException.class, () -> queueService.submit(glskContext)).getStatusCode());
+        } finally {
+            queue.shutdown();
+        }
+
+        // without any worker: the queue is bounded, and a run not computed in time is removed from it
+        InMemoryBalancesAdjustmentJobQueue idleQueue = new InMemoryBalancesAdjustmentJobQueue(1, 1);
+        BalancesAdjustmentQueueService idleQueueService = new BalancesAdjustmentQueueService(balancesAdjustmentJobService,
+            idleQueue, objectMapper, parametersProfiles, true, Duration.ofMillis(200), 3, Duration.ofMillis(10));
+        CompletableFuture<JsonNode> timedOutResult = idleQueueService.submit(new BalancesAdjustmentRunContext(testNetworkId, null, targetNetPositions));
+        BalancesAdjustmentRunContext rejectedContext = new BalancesAdjustmentRunContext(testNetworkId, null, targetNetPositions);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, assertThrows(ResponseStatusException.class, () -> idleQueueService.submit(rejectedContext)).getStatusCode());
+        ExecutionException timeout = assertThrows(ExecutionException.class, () -> timedOutResult.get(1, TimeUnit.MINUTES));
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, ((ResponseStatusException) timeout.getCause()).getStatusCode());
+        // room again for a new run
+        idleQueueService.submit(new BalancesAdjustmentRunContext(testNetworkId, null, targetNetPositions));
+    }
+
+    @Test
+    void testQueuedRunsRedelivery() throws Exception {
+        BalancesAdjustmentJobService jobService = mock(BalancesAdjustmentJobService.class);
+        // rejected by a full worker, then failing once, then computed
+        given(jobService.computeBalancesAdjustment(any(BalancesAdjustmentRunContext.class)))
+            .willThrow(new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "full"))
+            .willThrow(new IllegalStateException("network store unavailable"))
+            .willReturn(new BalanceComputationResult(BalanceComputationResult.Status.SUCCESS))
+            .willThrow(new IllegalStateException("network store unavailable"));
+        InMemoryBalancesAdjustmentJobQueue queue = new InMemoryBalancesAdjustmentJobQueue(4, 1);
+        BalancesAdjustmentQueueService queueService = new BalancesAdjustmentQueueService(jobService,
+            queue, objectMapper, parametersProfiles, true, Duration.ofMinutes(1), 2, Duration.ofMillis(10));
+        queueService.init();
+        try {
+            UUID networkUuid = UUID.randomUUID();
+            JsonNode result = queueService.submit(new BalancesAdjustmentRunContext(networkUuid, null, Map.of("FR", 100.)))
+                .get(1, TimeUnit.MINUTES);
+            assertEquals("SUCCESS", result.get("status").asText());
+
+            // the failure is returned once the run has failed max-attempts times
+            ExecutionException e = assertThrows(ExecutionException.class, () -> queueService.submit(
+                new BalancesAdjustmentRunContext(networkUuid, null, Map.of("FR", 100.))).get(1, TimeUnit.MINUTES));
+            assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, ((ResponseStatusException) e.getCause()).getStatusCode());
+            verify(jobService, times(5)).computeBalancesAdjustment(any(BalancesAdjustmentRunContext.class));
+        } finally {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void testBalancesAdjustmentScenarios() throws Exception {
+        UUID testNetworkId = UUID.fromString("7928181c-7977-4592-ba19-88027e4254e4");
+
+        given(networkStoreService.getNetwork(testNetworkId, PreloadingStrategy.COLLECTION)).willReturn(testNetwork);
+
+        InputStream balanceComputationParametersIStream = new FileInputStream(ResourceUtils.getFile("classpath:balanceComputationParameters.json"));
+        BalanceComputationParameters balanceComputationParameters = JsonBalanceComputationParameters.read(balanceComputationParametersIStream);
+
+        List<TargetNetPositionsScenario> scenarios = TargetNetPositionsImporter.getTargetNetPositionsScenariosFromFile(
+                new FileInputStream(ResourceUtils.getFile("classpath:targetNetPositionsScenarios.json")));
+        assertEquals(3, scenarios.size());
+        assertTrue(scenarios.get(0).flush());
+        assertFalse(scenarios.get(1).flush());
+        assertEquals(-2000, scenarios.get(2).targetNetPositions().getNetPosition("BE"), 0.1);
+
+        List<BalancesAdjustmentScenarioResult> results = new ArrayList<>();
+        balancesAdjustmentScenariosService.computeBalancesAdjustmentScenarios(testNetworkId, balanceComputationParameters, null, scenarios, results::add);
+
+        // every scenario has a result, only the flushed one modified the network
+        assertEquals(3, results.size());
+        Map<String, BalancesAdjustmentScenarioResult> resultsById = results.stream()
+                .collect(Collectors.toMap(BalancesAdjustmentScenarioResult::scenarioId, Function.identity()));
+        assertEquals(BalanceComputationResult.Status.SUCCESS, resultsById.get("flushed").result().getStatus());
+        assertTrue(resultsById.get("flushed").flushed());
+        assertEquals(BalanceComputationResult.Status.SUCCESS, resultsById.get("what-if").result().getStatus());
+        assertEquals(2, resultsById.get("what-if").result().getIterationCount());
+        assertFalse(resultsById.get("what-if").flushed());
+        assertNotNull(resultsById.get("what-if-2").result());
+        assertFalse(resultsById.get("what-if-2").flushed());
+
+        verify(networkStoreService, times(1)).getNetwork(testNetworkId, PreloadingStrategy.COLLECTION);
+        verify(networkStoreService, times(1)).flush(testNetwork);
+        assertEquals(724.8642, testNetwork.getGenerator("BBE1AA1 _generator").getTargetP(), 0.1);
+        assertEquals(List.of(VariantManagerConstants.INITIAL_VARIANT_ID), List.copyOf(testNetwork.getVariantManager().getVariantIds()));
+
+        // at most one scenario can be flushed
+        List<TargetNetPositionsScenario> twoFlushedScenarios = List.of(scenarios.get(0), scenarios.get(0));
+        assertThrows(ResponseStatusException.class, () -> balancesAdjustmentScenariosService.computeBalancesAdjustmentScenarios(testNetworkId,
+                balanceComputationParameters, null, twoFlushedScenarios, results::add));
+    }
+
+    @Test
+    void testBalancesAdjustmentScenariosController() throws Exception {
+        UUID testNetworkId = UUID.fromString("7928181c-7977-4592-ba19-88027e4254e4");
+
+        given(networkStoreService.getNetwork(testNetworkId, PreloadingStrategy.COLLECTION)).willReturn(testNetwork);
+
+        MockMultipartFile scenariosFile = new MockMultipartFile("scenariosFile", "targetNetPositionsScenarios.json",
+                "text/json", new FileInputStream(ResourceUtils.getFile("classpath:targetNetPositionsScenarios.json")));
+
+        MockMultipartHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.multipart("/v1/networks/{networkUuid}/run-scenarios", testNetworkId.toString());
+        builder.with(request -> {
+            request.setMethod("PUT");
+            return request;
+        });
+
+        MvcResult result = mvc.perform(builder.file(scenariosFile))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(30_000);
+
+        // one result per line
+        String[] lines = result.getResponse().getContentAsString().trim().split("\n");
+        assertEquals(3, lines.length);
+        for (String line : lines) {
+            JsonNode scenarioResult = objectMapper.readTree(line);
+            assertEquals("flushed".equals(scenarioResult.get("scenarioId").asText()), scenarioResult.get("flushed").asBoolean());
+            assertTrue(scenarioResult.get("result").has("status"));
+        }
+    }
+
     @Test
     void testFailedWorkingBalancesAdjustmentComputation() throws Exception {
         UUID testNetworkId = UUID.fromString("7928181c-7977-4592-ba19-88027e4254e4");
@@ -346,6 +1045,24 @@ class BalancesAdjustmentTest {
         }
     }
 
+    @Test
+    void testCountryNetworkAreas() {
+        CountryNetworkAreas networkAreas = CountryNetworkAreas.of(testNetwork);
+        NetworkAreaFactory franceArea = networkAreas.getFactories().get("FR");
+        // built once for the run network, but not for any other network
+        assertSame(franceArea.create(testNetwork), franceArea.create(testNetwork));
+        Network otherNetwork = Network.read("testCase.xiidm", getClass().getResourceAsStream("/testCase.xiidm"));
+        assertNotSame(franceArea.create(otherNetwork), franceArea.create(otherNetwork));
+
+        double franceNetPosition = new CountryAreaFactory(Country.FR).create(testNetwork).getNetPosition();
+        assertEquals(franceNetPosition, networkAreas.getInitialNetPosition("FR"), 1e-6);
+        Map<String, Double> targetNetPositions = new HashMap<>(Map.of("BE", -2000.));
+        balancesAdjustmentService.completeInputMaps(networkAreas, targetNetPositions);
+        assertEquals(-2000., targetNetPositions.get("BE"), 1e-6);
+        assertEquals(franceNetPosition, targetNetPositions.get("FR"), 1e-6);
+        assertEquals(targetNetPositions.keySet(), networkAreas.getInitialNetPositions().keySet());
+    }
+
     @Test
     void testNetworkComputationAreasCreationIterativeMode() throws Exception {
         try (InputStream targetNetPositionsStream = new FileInputStream(ResourceUtils.getFile("classpath:workingTargetNetPositions.json"))) {
@@ -382,6 +1099,176 @@ class BalancesAdjustmentTest {
         }
     }
 
+    @Test
+    void testNetworkComputationAreasCreationSingleGeneratorsPass() throws Exception {
+        try (InputStream targetNetPositionsStream = new FileInputStream(ResourceUtils.getFile("classpath:workingTargetNetPositions.json"))) {
+            Map<String, Double> targetNetPositions = TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(targetNetPositionsStream);
+            Network spiedNetwork = spy(testNetwork);
+
+            List<BalanceComputationArea> balanceComputationAreas = balancesAdjustmentService.createBalanceComputationAreas(spiedNetwork, targetNetPositions, true);
+
+            // generators of all countries are indexed with a single traversal of the network
+            assertEquals(4, balanceComputationAreas.size());
+            verify(spiedNetwork, times(1)).getGenerators();
+            verify(spiedNetwork, never()).getGeneratorStream();
+
+            // keys content
+            CountryDistributionKeys.DistributionKeys belgianKeys = CountryDistributionKeys.of(testNetwork, ScalingStrategy.TARGET_P).getKeys(Country.BE);
+            assertEquals(3, belgianKeys.size());
+            assertEquals("BBE1AA1 _generator", belgianKeys.getId(0));
+            assertEquals(1500. / 7000 * 100, belgianKeys.getPercentage(0), 1e-6);
+            assertTrue(CountryDistributionKeys.of(testNetwork, ScalingStrategy.TARGET_P).getKeys(Country.ES).isEmpty());
+        }
+    }
+
+    @Test
+    void testParallelNetworkComputationAreasCreation() {
+        Map<String, Double> targetNetPositions = Map.of("BE", -2117.3, "DE", -4503.5, "FR", 5002.7, "NL", 1618.2);
+        CountryNetworkAreas networkAreas = CountryNetworkAreas.of(testNetwork);
+        CountryDistributionKeys distributionKeys = CountryDistributionKeys.of(testNetwork, ScalingStrategy.TARGET_P);
+        List<BalanceComputationArea> sequentialAreas = BalancesAdjustmentService.createBalanceComputationAreas(testNetwork.getCountries(),
+            networkAreas, distributionKeys, targetNetPositions, Map.of(), null);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<BalanceComputationArea> parallelAreas = BalancesAdjustmentService.createBalanceComputationAreas(testNetwork.getCountries(),
+                networkAreas, distributionKeys, targetNetPositions, Map.of(), pool);
+
+            // same areas in the same order, shifting the same generators the same way
+            assertEquals(4, parallelAreas.size());
+            assertEquals(sequentialAreas.stream().map(BalanceComputationArea::getName).toList(), parallelAreas.stream().map(BalanceComputationArea::getName).toList());
+            Network sequentialNetwork = Network.read("testCase.xiidm", getClass().getResourceAsStream("/testCase.xiidm"));
+            ScalingParameters scalingParameters = new ScalingParameters().setScalingConvention(Scalable.ScalingConvention.GENERATOR);
+            for (int i = 0; i < parallelAreas.size(); i++) {
+                assertEquals(sequentialAreas.get(i).getTargetNetPosition(), parallelAreas.get(i).getTargetNetPosition(), 0);
+                sequentialAreas.get(i).getScalable().scale(sequentialNetwork, 1000, scalingParameters);
+                parallelAreas.get(i).getScalable().scale(testNetwork, 1000, scalingParameters);
+            }
+            sequentialNetwork.getGenerators().forEach(generator ->
+                assertEquals(generator.getTargetP(), testNetwork.getGenerator(generator.getId()).getTargetP(), 0, generator.getId()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testLoadsScalingStrategy() throws Exception {
+        UUID testNetworkId = UUID.fromString("7928181c-7977-4592-ba19-88027e4254e4");
+        given(networkStoreService.getNetwork(testNetworkId, PreloadingStrategy.COLLECTION)).willReturn(testNetwork);
+        Map<String, Double> targetNetPositions = TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(
+            new FileInputStream(ResourceUtils.getFile("classpath:workingTargetNetPositions.json")));
+        Map<String, Double> initialP0 = testNetwork.getLoadStream().collect(Collectors.toMap(Load::getId, Load::getP0));
+
+        // the preview gives the loads changes
+        BalancesAdjustmentPreviewResult previewResult = (BalancesAdjustmentPreviewResult) balancesAdjustmentService.computeBalancesAdjustment(
+            new BalancesAdjustmentRunContext(testNetworkId, null, targetNetPositions).setScalingStrategy(ScalingStrategy.TARGET_P_AND_LOADS).setPreview(true));
+        assertEquals(BalanceComputationResult.Status.SUCCESS, previewResult.getStatus());
+        assertFalse(previewResult.getP0Deltas().isEmpty());
+
+        // and the flushed run writes them back to the network store
+        BalanceComputationResult result = balancesAdjustmentService.computeBalancesAdjustment(
+            new BalancesAdjustmentRunContext(testNetworkId, null, targetNetPositions).setScalingStrategy(ScalingStrategy.TARGET_P_AND_LOADS));
+        assertEquals(BalanceComputationResult.Status.SUCCESS, result.getStatus());
+        verify(networkStoreService, times(1)).flush(testNetwork);
+        testNetwork.getVariantManager().setWorkingVariant(VariantManagerConstants.INITIAL_VARIANT_ID);
+        previewResult.getP0Deltas().forEach((loadId, delta) ->
+            assertEquals(initialP0.get(loadId) + delta, testNetwork.getLoad(loadId).getP0(), 0.1, loadId));
+    }
+
+    @Test
+    void testScalingStrategies() throws Exception {
+        CountryDistributionKeys.DistributionKeys belgianKeys = CountryDistributionKeys.of(testNetwork, ScalingStrategy.MAX_P).getKeys(Country.BE);
+        assertEquals(100. / 3, belgianKeys.getPercentage(0), 1e-6);
+        // each run gets its own scalable, the keys being shared
+        assertNotSame(belgianKeys.createScalable(), belgianKeys.createScalable());
+        belgianKeys = CountryDistributionKeys.of(testNetwork, ScalingStrategy.TARGET_P_AND_LOADS).getKeys(Country.BE);
+        assertTrue(belgianKeys.size() > 3);
+        assertTrue(belgianKeys.isLoad(belgianKeys.size() - 1));
+        assertEquals(100, IntStream.range(0, belgianKeys.size()).mapToDouble(belgianKeys::getPercentage).sum(), 1e-6);
+
+        String glskFile = """
+            { "glsk": [ { "area": "BE", "type": "MERIT_ORDER", "injections": [ { "id": "BBE2AA1 _generator" }, { "id": "unknown" }, { "id": "BBE1AA1 _generator" } ] },
+                        { "area": "FR", "injections": [ { "id": "FFR1AA1 _generator", "factor": 3 }, { "id": "FFR2AA1 _generator", "factor": 1 } ] } ] }
+            """;
+        Glsk glsk = GlskImporter.readGlsk(toStream(glskFile));
+        CountryDistributionKeys keys = CountryDistributionKeys.of(testNetwork, ScalingStrategy.TARGET_P).withGlsk(testNetwork, glsk);
+        // unknown injections are ignored
+        assertTrue(keys.getKeys(Country.BE).isMeritOrder());
+        assertEquals(List.of("BBE2AA1 _generator", "BBE1AA1 _generator"), List.of(keys.getKeys(Country.BE).getId(0), keys.getKeys(Country.BE).getId(1)));
+        assertEquals(75, keys.getKeys(Country.FR).getPercentage(0), 1e-6);
+        // countries without GLSK keep the strategy keys
+        assertEquals(3, keys.getKeys(Country.DE).size());
+
+        // merit order: the first generator takes the whole shift as long as it can
+        double initialTargetP = testNetwork.getGenerator("BBE2AA1 _generator").getTargetP();
+        keys.getKeys(Country.BE).createScalable().scale(testNetwork, 100, new ScalingParameters().setScalingConvention(Scalable.ScalingConvention.GENERATOR));
+        assertEquals(initialTargetP + 100, testNetwork.getGenerator("BBE2AA1 _generator").getTargetP(), 0.1);
+        assertEquals(1500, testNetwork.getGenerator("BBE1AA1 _generator").getTargetP(), 0.1);
+
+        GlskFormatException e = assertThrows(GlskFormatException.class,
+            () -> GlskImporter.readGlsk(toStream("{ \"glsk\": [ { \"area\": \"BE\", \"type\": \"UNKNOWN\", \"injections\": [] } ] }")));
+        assertEquals(1, e.getLine());
+    }
+
+    @Test
+    void testTargetNetPositionsImporter() throws Exception {
+        String timeSeries = """
+            {
+              "timeSeries": [
+                { "timestamp": "2026-01-01T00:00:00Z", "netPositions": [ { "area": "FR", "netPosition": 100.5 }, { "area": "BE", "netPosition": -100.5 } ] },
+                { "timestamp": "2026-01-01T00:15:00Z", "comment": { "ignored": true }, "netPositions": [ { "area": "FR", "netPosition": 200 } ] }
+              ]
+            }""";
+        List<TimestampedTargetNetPositions> steps = TargetNetPositionsImporter.readTargetNetPositionsTimeSeries(toStream(timeSeries));
+        assertEquals(2, steps.size());
+        assertEquals("2026-01-01T00:00:00Z", steps.get(0).timestamp());
+        assertEquals(2, steps.get(0).targetNetPositions().size());
+        assertEquals(-100.5, steps.get(0).targetNetPositions().getNetPosition("BE"), 1e-6);
+        assertEquals(200, steps.get(1).targetNetPositions().getNetPosition("FR"), 1e-6);
+        assertTrue(Double.isNaN(steps.get(1).targetNetPositions().getNetPosition("BE")));
+
+        // a file without time series is a single step
+        steps = TargetNetPositionsImporter.readTargetNetPositionsTimeSeries(new FileInputStream(ResourceUtils.getFile("classpath:workingTargetNetPositions.json")));
+        assertEquals(1, steps.size());
+        assertEquals(4, steps.get(0).targetNetPositions().size());
+
+        // malformed entries are reported with their location instead of being skipped
+        String missingNetPosition = """
+            {
+              "netPositions": [
+                { "area": "FR", "netPosition": 100 },
+                { "area": "BE" }
+              ]
+            }""";
+        TargetNetPositionsFormatException e = assertThrows(TargetNetPositionsFormatException.class,
+            () -> TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(toStream(missingNetPosition)));
+        assertEquals(4, e.getLine());
+        assertEquals(5, e.getColumn());
+        e = assertThrows(TargetNetPositionsFormatException.class,
+            () -> TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(toStream("{ \"netPositions\": [ { \"area\": \"FR\", \"netPosition\": \"a\" } ] }")));
+        assertEquals(1, e.getLine());
+        e = assertThrows(TargetNetPositionsFormatException.class,
+            () -> TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(toStream("{ \"netPositions\": [ ")));
+        assertEquals(1, e.getLine());
+
+        // net positions must be numbers
+        e = assertThrows(TargetNetPositionsFormatException.class,
+            () -> TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(toStream("{ \"netPositions\": [ { \"area\": \"FR\", \"netPosition\": \"100.5\" } ] }")));
+        assertEquals(1, e.getLine());
+
+        // unknown fields are ignored, and the targets are kept in the file order
+        Map<String, Double> targetNetPositions = TargetNetPositionsImporter.getTargetNetPositionsAreasFromFile(
+            toStream("{ \"version\": { \"major\": 1 }, \"netPositions\": [ { \"area\": \"FR\", \"netPosition\": 1 }, { \"area\": \"BE\", \"netPosition\": 2 } ] }"));
+        assertEquals(List.of("FR", "BE"), List.copyOf(targetNetPositions.keySet()));
+        TargetNetPositions compactTargetNetPositions = TargetNetPositionsImporter.readTargetNetPositions(
+            toStream("{ \"netPositions\": [ { \"area\": \"FR\", \"netPosition\": 1 }, { \"area\": \"FR\", \"netPosition\": 3 } ] }"));
+        assertEquals(1, compactTargetNetPositions.size());
+        assertEquals(3, compactTargetNetPositions.getNetPosition(0), 1e-6);
+    }
+
+    private static InputStream toStream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
     @Test
     void testTargetNetPositions() throws Exception {
         try (InputStream targetNetPositionsStream = new FileInputStream(ResourceUtils.getFile("classpath:failingTargetNetPositions.json"))) {
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.serde.NetworkSerDe;
+import com.powsybl.network.store.client.NetworkStoreService;
+import com.powsybl.network.store.client.PreloadingStrategy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for the network store: networks are kept serialized and read again at each fetch, as
+ * the store materializes them at each fetch, fetches and flushes waiting for a configurable latency first.
+ * <p>
+ * Flushes are acknowledged without being persisted, so that each fetch returns the same initial network and
+ * successive load tests run on the same data.
+ */
+public class NetworkStoreStandIn extends NetworkStoreService {
+
+    private final Duration fetchLatency;
+
+    private final Duration flushLatency;
+
+    private final Map<UUID, byte[]> networks = new ConcurrentHashMap<>();
+
+    public NetworkStoreStandIn(Duration fetchLatency, Duration flushLatency) {
+        super("http://network-store-stand-in/");
+        this.fetchLatency = fetchLatency;
+        this.flushLatency = flushLatency;
+    }
+
+    public void importNetwork(UUID networkUuid, Network network) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        NetworkSerDe.write(network, output);
+        networks.put(networkUuid, output.toByteArray());
+    }
+
+    @Override
+    public Network getNetwork(UUID networkUuid, PreloadingStrategy preloadingStrategy) {
+        byte[] network = networks.get(networkUuid);
+        if (network == null) {
+            throw new PowsyblException("Network '" + networkUuid + "' not found");
+        }
+        sleep(fetchLatency);
+        return NetworkSerDe.read(new ByteArrayInputStream(network));
+    }
+
+    @Override
+    public void flush(Network network) {
+        sleep(flushLatency);
+    }
+
+    private static void sleep(Duration latency) {
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PowsyblException("Interrupted while waiting for the network store stand-in", e);
+        }
+    }
+}
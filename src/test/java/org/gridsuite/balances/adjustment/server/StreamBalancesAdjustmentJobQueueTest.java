@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * The queued runs carried by Spring Cloud Stream, through the test binder instead of RabbitMQ.
+ */
+class StreamBalancesAdjustmentJobQueueTest {
+
+    private static final String RUN_DESTINATION = "balances.adjustment.run";
+    private static final String RESULT_DESTINATION = "balances.adjustment.result";
+    private static final long TIMEOUT_MILLIS = 1000;
+
+    @EnableAutoConfiguration
+    @Import(StreamBalancesAdjustmentJobQueue.class)
+    static class StreamQueueConfiguration {
+    }
+
+    @Test
+    void testStreamQueue() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TestChannelBinderConfiguration.getCompleteConfiguration(StreamQueueConfiguration.class))
+                .web(WebApplicationType.NONE)
+                .properties("balances-adjustment.queue.broker=stream")
+                .run()) {
+            BalancesAdjustmentJobQueue queue = context.getBean(BalancesAdjustmentJobQueue.class);
+            assertInstanceOf(StreamBalancesAdjustmentJobQueue.class, queue);
+            InputDestination input = context.getBean(InputDestination.class);
+            OutputDestination output = context.getBean(OutputDestination.class);
+
+            // published runs and results are sent to their destinations
+            String run = "{\"runUuid\":\"7928181c-7977-4592-ba19-88027e4254e4\"}";
+            queue.publishRun(run);
+            assertEquals(run, getPayload(output.receive(TIMEOUT_MILLIS, RUN_DESTINATION)));
+            String result = "{\"runUuid\":\"7928181c-7977-4592-ba19-88027e4254e4\",\"errorStatus\":0}";
+            queue.publishResult(result);
+            assertEquals(result, getPayload(output.receive(TIMEOUT_MILLIS, RESULT_DESTINATION)));
+
+            // received runs are given to the worker, received results to every listener
+            List<String> runs = new CopyOnWriteArrayList<>();
+            queue.subscribeRuns(runs::add);
+            List<String> results = new CopyOnWriteArrayList<>();
+            queue.subscribeResults(results::add);
+            input.send(MessageBuilder.withPayload(run.getBytes(StandardCharsets.UTF_8)).build(), RUN_DESTINATION);
+            input.send(MessageBuilder.withPayload(result.getBytes(StandardCharsets.UTF_8)).build(), RESULT_DESTINATION);
+            assertEquals(List.of(run), runs);
+            assertEquals(List.of(result), results);
+        }
+    }
+
+    private static String getPayload(Message<byte[]> message) {
+        assertNotNull(message);
+        return new String(message.getPayload(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.gridsuite.balances.adjustment.server;
+
+import com.powsybl.iidm.network.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic networks for benchmarks and load tests: one substation per country, the generators of a country being
+ * spread over several buses, and countries connected in a ring by lines carrying an active power flow.
+ * Generators, loads and lines have their terminal active power set, as if a load flow had been run.
+ */
+public final class SyntheticNetworkFactory {
+
+    private static final int GENERATORS_PER_BUS = 100;
+
+    private SyntheticNetworkFactory() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    public static List<Country> getCountries(int countryCount) {
+        return Arrays.asList(Country.values()).subList(0, countryCount);
+    }
+
+    public static Network create(int generatorCount, int countryCount, long seed) {
+        Random random = new Random(seed);
+        Network network = Network.create("synthetic-" + generatorCount + "-" + countryCount, "test");
+        List<Country> countries = getCountries(countryCount);
+        for (int c = 0; c < countryCount; c++) {
+            Country country = countries.get(c);
+            VoltageLevel voltageLevel = network.newSubstation()
+                    .setId("S_" + country)
+                    .setCountry(country)
+                    .add()
+                    .newVoltageLevel()
+                    .setId("VL_" + country)
+                    .setNominalV(400)
+                    .setTopologyKind(TopologyKind.BUS_BREAKER)
+                    .add();
+            int countryGeneratorCount = generatorCount / countryCount + (c < generatorCount % countryCount ? 1 : 0);
+            int busCount = Math.max(1, (countryGeneratorCount + GENERATORS_PER_BUS - 1) / GENERATORS_PER_BUS);
+            double countryProduction = 0;
+            for (int b = 0; b < busCount; b++) {
+                voltageLevel.getBusBreakerView().newBus().setId(busId(country, b)).add();
+            }
+            for (int g = 0; g < countryGeneratorCount; g++) {
+                double targetP = 10 + random.nextDouble() * 490;
+                Generator generator = voltageLevel.newGenerator()
+                        .setId("G_" + country + "_" + g)
+                        .setBus(busId(country, g / GENERATORS_PER_BUS))
+                        .setMinP(50)
+                        .setMaxP(1000)
+                        .setTargetP(targetP)
+                        .setVoltageRegulatorOn(false)
+                        .setTargetQ(0)
+                        .add();
+                // slightly different from the target, as computed by a load flow with compensation
+                generator.getTerminal().setP(-targetP * (0.99 + random.nextDouble() * 0.02));
+                countryProduction += targetP;
+            }
+            for (int b = 0; b < busCount; b++) {
+                double p0 = countryProduction / busCount;
+                voltageLevel.newLoad()
+                        .setId("L_" + country + "_" + b)
+                        .setBus(busId(country, b))
+                        .setP0(p0)
+                        .setQ0(0)
+                        .add()
+                        .getTerminal().setP(p0);
+            }
+        }
+        for (int c = 0; c < countryCount && countryCount > 1; c++) {
+            Country country1 = countries.get(c);
+            Country country2 = countries.get((c + 1) % countryCount);
+            double flow = (random.nextDouble() - 0.5) * 2000;
+            Line line = network.newLine()
+                    .setId("LINE_" + country1 + "_" + country2)
+                    .setVoltageLevel1("VL_" + country1)
+                    .setBus1(busId(country1, 0))
+                    .setVoltageLevel2("VL_" + country2)
+                    .setBus2(busId(country2, 0))
+                    .setR(1)
+                    .setX(10)
+                    .add();
+            line.getTerminal1().setP(flow);
+            line.getTerminal2().setP(-flow);
+        }
+        return network;
+    }
+
+    /**
+     * Target net positions of all the countries, summing to zero.
+     */
+    /**
+     * Same as {@link #create}, with one voltage regulating generator by country, for the load flows of the balance
+     * computation to converge.
+     */
+    public static Network createRegulated(int generatorCount, int countryCount, long seed) {
+        Network network = create(generatorCount, countryCount, seed);
+        network.getGeneratorStream()
+                .filter(generator -> generator.getId().endsWith("_0"))
+                .forEach(generator -> generator.setTargetV(400).setVoltageRegulatorOn(true));
+        return network;
+    }
+
+    public static Map<String, Double> createTargetNetPositions(int countryCount, long seed) {
+        Random random = new Random(seed);
+        Map<String, Double> targetNetPositions = new HashMap<>();
+        double sum = 0;
+        List<Country> countries = getCountries(countryCount);
+        for (int c = 0; c < countryCount - 1; c++) {
+            double netPosition = (random.nextDouble() - 0.5) * 4000;
+            targetNetPositions.put(countries.get(c).toString(), netPosition);
+            sum += netPosition;
+        }
+        targetNetPositions.put(countries.get(countryCount - 1).toString(), -sum);
+        return targetNetPositions;
+    }
+
+    public static byte[] writeTargetNetPositions(Map<String, Double> targetNetPositions) {
+        StringBuilder json = new StringBuilder("{\"netPositions\":[");
+        targetNetPositions.forEach((area, netPosition) -> json.append("{\"area\":\"").append(area)
+                .append("\",\"netPosition\":").append(netPosition).append("},"));
+        json.setLength(json.length() - 1);
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String busId(Country country, int index) {
+        return "B_" + country + "_" + index;
+    }
+}